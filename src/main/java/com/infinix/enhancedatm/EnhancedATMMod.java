@@ -6,6 +6,9 @@ import com.infinix.enhancedatm.common.container.EnhancedATMContainer;
 import com.infinix.enhancedatm.common.network.NetworkHandler;
 import com.infinix.enhancedatm.common.config.Config;
 import com.infinix.enhancedatm.common.commands.ReloadATMConfigCommand;
+import com.infinix.enhancedatm.common.money.DenominationRegistry;
+import com.infinix.enhancedatm.common.utils.BubusteinMoneyIntegration;
+import com.infinix.enhancedatm.common.utils.CardAccessor;
 import com.mojang.logging.LogUtils;
 import net.minecraft.client.gui.screens.MenuScreens;
 import net.minecraft.world.inventory.MenuType;
@@ -60,6 +63,7 @@ public class EnhancedATMMod {
         CONTAINERS.register(modEventBus);
         ModBlocks.BLOCKS.register(modEventBus);
         ModBlocks.ITEMS.register(modEventBus);
+        ModBlocks.BLOCK_ENTITIES.register(modEventBus);
 
         // Register lifecycle events
         modEventBus.addListener(this::commonSetup);
@@ -82,6 +86,14 @@ public class EnhancedATMMod {
         event.enqueueWork(() -> {
             NetworkHandler.init();
         });
+        
+        // Resolve BubusteinMoney card access, ATM types, denomination table and exchange rates once registries are frozen
+        event.enqueueWork(() -> {
+            CardAccessor.init();
+            com.infinix.enhancedatm.common.utils.AtmTypeRegistry.rebuild();
+            DenominationRegistry.rebuild();
+            BubusteinMoneyIntegration.refreshExchangeRates();
+        });
     }
 
     private void clientSetup(final FMLClientSetupEvent event) {
@@ -106,6 +118,10 @@ public class EnhancedATMMod {
     public void onRegisterCommands(RegisterCommandsEvent event) {
         ReloadATMConfigCommand.register(event.getDispatcher());
         com.infinix.enhancedatm.common.commands.GiveBankPermissionCommand.register(event.getDispatcher());
+        com.infinix.enhancedatm.common.commands.WalletCommand.register(event.getDispatcher());
+        com.infinix.enhancedatm.common.commands.BankPermissionCommand.register(event.getDispatcher());
+        com.infinix.enhancedatm.common.commands.BankZoneCommand.register(event.getDispatcher());
+        com.infinix.enhancedatm.common.commands.AtmSessionCommand.register(event.getDispatcher());
     }
     
     /**
@@ -124,13 +140,8 @@ public class EnhancedATMMod {
             // Log configuration version for debugging
             LOGGER.info("Enhanced ATM: Configuration version: " + config.configVersion);
             
-            // Check if cardSlot is properly initialized
-            if (config.cardSlot != null) {
-                LOGGER.info("Enhanced ATM: CardSlot position loaded: (" + config.cardSlot.offsetX + ", " + config.cardSlot.offsetY + ")");
-            } else {
-                LOGGER.warn("Enhanced ATM: CardSlot position is null after initialization - forcing update");
-                com.infinix.enhancedatm.common.config.ATMGuiConfig.forceUpdate();
-            }
+            // Missing settings are filled with defaults while loading, cardSlot is always set
+            LOGGER.info("Enhanced ATM: CardSlot position loaded: (" + config.cardSlot.offsetX + ", " + config.cardSlot.offsetY + ")");
             
         } catch (Exception e) {
             LOGGER.error("Enhanced ATM: Failed to initialize server configuration", e);
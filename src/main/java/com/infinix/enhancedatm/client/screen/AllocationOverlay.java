@@ -0,0 +1,71 @@
+package com.infinix.enhancedatm.client.screen;
+
+import net.minecraft.client.gui.Font;
+import net.minecraft.client.gui.GuiGraphics;
+import net.minecraft.network.chat.Component;
+import net.minecraft.util.FormattedCharSequence;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Debug overlay showing how many bytes the ATM screen allocates per frame
+ * Uses the JVM's per-thread allocation counter around the screen's render call and averages it
+ * over one second, so the overlay text (and the allocations it causes itself) only change once a second
+ */
+public class AllocationOverlay {
+    
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+    
+    private static final com.sun.management.ThreadMXBean THREADS = resolveThreadBean();
+    
+    private long frameStart = -1L;
+    private long windowStart = 0L;
+    private long windowBytes = 0L;
+    private int windowFrames = 0;
+    private FormattedCharSequence text = FormattedCharSequence.EMPTY;
+    
+    /**
+     * Whether the running JVM can count allocations per thread
+     */
+    public static boolean isSupported() {
+        return THREADS != null;
+    }
+    
+    public void beginFrame() {
+        frameStart = THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1L;
+    }
+    
+    public void endFrame() {
+        if (frameStart < 0L) return;
+        
+        windowBytes += THREADS.getCurrentThreadAllocatedBytes() - frameStart;
+        windowFrames++;
+        frameStart = -1L;
+        
+        long now = System.nanoTime();
+        if (now - windowStart >= WINDOW_NANOS) {
+            long perFrame = windowFrames > 0 ? windowBytes / windowFrames : 0L;
+            text = Component.literal("ATM screen: " + perFrame + " B/frame, " + windowFrames + " fps").getVisualOrderText();
+            windowStart = now;
+            windowBytes = 0L;
+            windowFrames = 0;
+        }
+    }
+    
+    public void render(GuiGraphics guiGraphics, Font font) {
+        guiGraphics.drawString(font, text, 2, 2, 0xFFFF55);
+    }
+    
+    private static com.sun.management.ThreadMXBean resolveThreadBean() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                    && bean.isThreadAllocatedMemorySupported()) {
+                bean.setThreadAllocatedMemoryEnabled(true);
+                return bean;
+            }
+        } catch (Throwable e) {
+            System.err.println("Enhanced ATM: Allocation counter not available: " + e.getMessage());
+        }
+        return null;
+    }
+}
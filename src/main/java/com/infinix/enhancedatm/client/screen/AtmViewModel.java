@@ -0,0 +1,176 @@
+package com.infinix.enhancedatm.client.screen;
+
+import com.infinix.enhancedatm.common.container.EnhancedATMContainer;
+import com.infinix.enhancedatm.common.money.CurrencyId;
+import com.infinix.enhancedatm.common.money.Money;
+import com.infinix.enhancedatm.common.money.RateSnapshot;
+import net.minecraft.network.chat.Component;
+
+import java.util.Objects;
+
+/**
+ * Display state of the ATM screen, derived from the menu's synced values, the selected currencies
+ * and the exchange rates
+ * Recomputed only when one of those inputs changes (checked once per container tick), the render
+ * path just reads the cached values and pre-built components
+ */
+public class AtmViewModel {
+    
+    // Change flags returned by update
+    public static final int CARD_CHANGED = 1;
+    public static final int GRID_CHANGED = 1 << 1;
+    public static final int CURRENCIES_CHANGED = 1 << 2;
+    public static final int RATES_CHANGED = 1 << 3;
+    
+    // Labels that never change
+    public static final Component TITLE = Component.translatable("gui.enhancedatm.atm_title");
+    public static final Component AMOUNT_LABEL = Component.translatable("gui.enhancedatm.amount_label");
+    public static final Component CONVERSION_ARROW = Component.literal(">");
+    
+    private final EnhancedATMContainer menu;
+    
+    // Inputs seen at the last update
+    private Money cardBalance;
+    private Money gridTotal;
+    private String sourceCurrency;
+    private String targetCurrency;
+    private long rateVersion = -1L;
+    
+    // Derived values
+    private double exchangeRate = 1.0;
+    private Component exchangeRateLabel;
+    private Component gridTotalLabel;
+    private Component cardBalanceLabel;
+    
+    public AtmViewModel(EnhancedATMContainer menu) {
+        this.menu = menu;
+    }
+    
+    /**
+     * Compare the inputs against the last update and rebuild what depends on the ones that changed
+     * Returns the CHANGED flags of the inputs that differed, 0 when nothing had to be recomputed
+     */
+    public int update(String source, String target) {
+        int changes = 0;
+        
+        Money newCardBalance = menu.getSyncedCardBalance();
+        if (!Objects.equals(newCardBalance, cardBalance)) {
+            cardBalance = newCardBalance;
+            changes |= CARD_CHANGED;
+        }
+        
+        Money newGridTotal = menu.getSyncedGridTotal();
+        if (!Objects.equals(newGridTotal, gridTotal)) {
+            gridTotal = newGridTotal;
+            changes |= GRID_CHANGED;
+        }
+        
+        if (!source.equals(sourceCurrency) || !target.equals(targetCurrency)) {
+            sourceCurrency = source;
+            targetCurrency = target;
+            changes |= CURRENCIES_CHANGED;
+        }
+        
+        RateSnapshot rates = RateSnapshot.current();
+        if (rates.getVersion() != rateVersion) {
+            rateVersion = rates.getVersion();
+            changes |= RATES_CHANGED;
+        }
+        
+        if ((changes & CARD_CHANGED) != 0) {
+            cardBalanceLabel = cardBalance != null
+                ? Component.translatable("gui.enhancedatm.card_balance_label", cardBalance.toPlainString(), cardBalance.getCurrency().getCode())
+                : null;
+        }
+        
+        if ((changes & (CURRENCIES_CHANGED | RATES_CHANGED)) != 0) {
+            rebuildExchangeRate(rates);
+        }
+        
+        if ((changes & (GRID_CHANGED | CURRENCIES_CHANGED | RATES_CHANGED)) != 0) {
+            rebuildGridTotal(rates);
+        }
+        
+        return changes;
+    }
+    
+    /**
+     * Forget the last seen inputs so the next update rebuilds everything
+     */
+    public void invalidate() {
+        cardBalance = null;
+        gridTotal = null;
+        sourceCurrency = null;
+        targetCurrency = null;
+        rateVersion = -1L;
+        cardBalanceLabel = null;
+        gridTotalLabel = null;
+    }
+    
+    private void rebuildExchangeRate(RateSnapshot rates) {
+        CurrencyId from = CurrencyId.fromCode(sourceCurrency);
+        CurrencyId to = CurrencyId.fromCode(targetCurrency);
+        exchangeRate = from != null && to != null ? rates.getRate(from, to) : 1.0;
+        
+        exchangeRateLabel = !sourceCurrency.equals(targetCurrency)
+            ? Component.translatable("gui.enhancedatm.exchange_rate_label", sourceCurrency, String.format("%.4f", exchangeRate), targetCurrency)
+            : null;
+    }
+    
+    private void rebuildGridTotal(RateSnapshot rates) {
+        if (gridTotal == null || !gridTotal.isPositive()) {
+            gridTotalLabel = null;
+            return;
+        }
+        
+        CurrencyId to = CurrencyId.fromCode(targetCurrency);
+        if (to != null && to != gridTotal.getCurrency()) {
+            // Show conversion: "5.00 EUR → 5.80 USD"
+            Money converted = rates.convert(gridTotal, to);
+            gridTotalLabel = Component.literal(gridTotal.toPlainString() + " " + gridTotal.getCurrency().getCode()
+                + " → " + converted.toPlainString() + " " + to.getCode());
+        } else {
+            // Show just the amount: "5.00 EUR"
+            gridTotalLabel = Component.literal(gridTotal.toPlainString() + " " + gridTotal.getCurrency().getCode());
+        }
+    }
+    
+    /**
+     * Balance of the card in the slot, or null without a card
+     */
+    public Money getCardBalance() {
+        return cardBalance;
+    }
+    
+    /**
+     * Grid total, or null while the grid is empty
+     */
+    public Money getGridTotal() {
+        return gridTotal;
+    }
+    
+    public double getExchangeRate() {
+        return exchangeRate;
+    }
+    
+    /**
+     * Exchange rate label, null when source and target currency are the same
+     */
+    public Component getExchangeRateLabel() {
+        return exchangeRateLabel;
+    }
+    
+    /**
+     * Grid total label with its conversion to the target currency, null while the grid is empty
+     */
+    public Component getGridTotalLabel() {
+        return gridTotalLabel;
+    }
+    
+    /**
+     * Card balance label, null without a card
+     */
+    public Component getCardBalanceLabel() {
+        return cardBalanceLabel;
+    }
+}
@@ -1,10 +1,18 @@
 package com.infinix.enhancedatm.common.blocks;
 
+import com.infinix.enhancedatm.common.data.AtmSessionManager;
+import com.infinix.enhancedatm.common.data.BankPermissionIndex;
 import net.minecraft.core.BlockPos;
 import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.EntityBlock;
+import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.SoundType;
 import net.minecraft.world.level.block.state.BlockBehaviour;
 import net.minecraft.world.level.block.state.BlockState;
@@ -14,12 +22,12 @@ import net.minecraft.world.phys.shapes.VoxelShape;
 /**
  * Bank Permission Block - Special block that enables ATM functionality within range
  * Can only be obtained via admin commands
- * ATMs will only work if this block is within configured range
+ * ATMs will only work if this block is within range, each block carries its own range in a block entity
  * 
  * @author InfinixMC
  * @version 1.0.0
  */
-public class BankPermissionBlock extends Block {
+public class BankPermissionBlock extends Block implements EntityBlock {
     
     // Block shape - slightly smaller than full block for visual distinction
     private static final VoxelShape SHAPE = Block.box(1.0D, 0.0D, 1.0D, 15.0D, 16.0D, 15.0D);
@@ -39,6 +47,40 @@ public class BankPermissionBlock extends Block {
         return SHAPE;
     }
     
+    @Override
+    public void onPlace(BlockState state, Level level, BlockPos pos, BlockState oldState, boolean movedByPiston) {
+        super.onPlace(state, level, pos, oldState, movedByPiston);
+        
+        if (level instanceof ServerLevel serverLevel && !oldState.is(this)) {
+            BankPermissionIndex.get(serverLevel).add(pos);
+        }
+    }
+    
+    @Override
+    public void setPlacedBy(Level level, BlockPos pos, BlockState state, LivingEntity placer, ItemStack stack) {
+        super.setPlacedBy(level, pos, state, placer, stack);
+        
+        // The item's BlockEntityTag is applied after onPlace, index the radius and currencies it set
+        if (level.getBlockEntity(pos) instanceof BankPermissionBlockEntity blockEntity) {
+            blockEntity.updateIndex();
+        }
+    }
+    
+    @Override
+    public BlockEntity newBlockEntity(BlockPos pos, BlockState state) {
+        return new BankPermissionBlockEntity(pos, state);
+    }
+    
+    @Override
+    public void onRemove(BlockState state, Level level, BlockPos pos, BlockState newState, boolean movedByPiston) {
+        if (level instanceof ServerLevel serverLevel && !newState.is(this)) {
+            BankPermissionIndex.get(serverLevel).remove(pos);
+            AtmSessionManager.recheckPermissions(serverLevel);
+        }
+        
+        super.onRemove(state, level, pos, newState, movedByPiston);
+    }
+    
     /**
      * Get the display name for this block
      */
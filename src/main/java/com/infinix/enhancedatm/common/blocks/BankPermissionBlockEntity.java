@@ -0,0 +1,94 @@
+package com.infinix.enhancedatm.common.blocks;
+
+import com.infinix.enhancedatm.common.data.BankPermissionIndex;
+import com.infinix.enhancedatm.common.money.CurrencyId;
+import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Settings of one Bank Permission Block: the radius it covers and the currencies ATMs in range may handle
+ * Set from the item's BlockEntityTag when placed, see GiveBankPermissionCommand
+ */
+public class BankPermissionBlockEntity extends BlockEntity {
+    
+    // 0 follows the configured bank_permission_range
+    private int radius = 0;
+    
+    // Empty allows every currency
+    private Set<CurrencyId> currencies = EnumSet.noneOf(CurrencyId.class);
+    
+    public BankPermissionBlockEntity(BlockPos pos, BlockState state) {
+        super(ModBlocks.BANK_PERMISSION_BLOCK_ENTITY.get(), pos, state);
+    }
+    
+    public int getRadius() {
+        return radius;
+    }
+    
+    public Set<CurrencyId> getCurrencies() {
+        return Collections.unmodifiableSet(currencies);
+    }
+    
+    /**
+     * Push these settings into the dimension's permission index
+     */
+    public void updateIndex() {
+        if (level instanceof ServerLevel serverLevel) {
+            BankPermissionIndex.get(serverLevel).add(worldPosition, radius, currencies);
+        }
+    }
+    
+    @Override
+    public void onLoad() {
+        super.onLoad();
+        // Keeps the index in line with the block, the index skips the update when nothing changed
+        updateIndex();
+    }
+    
+    @Override
+    public void load(CompoundTag tag) {
+        super.load(tag);
+        radius = Math.max(0, Math.min(BankPermissionIndex.MAX_RADIUS, tag.getInt("Radius")));
+        currencies = readCurrencies(tag);
+    }
+    
+    @Override
+    protected void saveAdditional(CompoundTag tag) {
+        super.saveAdditional(tag);
+        writeSettings(tag, radius, currencies);
+    }
+    
+    /**
+     * Write block settings in the format read by {@link #load(CompoundTag)}, also used for item BlockEntityTags
+     */
+    public static void writeSettings(CompoundTag tag, int radius, Set<CurrencyId> currencies) {
+        tag.putInt("Radius", radius);
+        ListTag list = new ListTag();
+        for (CurrencyId currency : currencies) {
+            list.add(StringTag.valueOf(currency.getCode()));
+        }
+        tag.put("Currencies", list);
+    }
+    
+    private static Set<CurrencyId> readCurrencies(CompoundTag tag) {
+        Set<CurrencyId> result = EnumSet.noneOf(CurrencyId.class);
+        ListTag list = tag.getList("Currencies", Tag.TAG_STRING);
+        for (int i = 0; i < list.size(); i++) {
+            CurrencyId currency = CurrencyId.fromCode(list.getString(i));
+            if (currency != null) {
+                result.add(currency);
+            }
+        }
+        return result;
+    }
+}
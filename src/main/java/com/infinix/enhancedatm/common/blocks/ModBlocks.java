@@ -4,6 +4,7 @@ import com.infinix.enhancedatm.EnhancedATMMod;
 import net.minecraft.world.item.BlockItem;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraftforge.registries.DeferredRegister;
 import net.minecraftforge.registries.ForgeRegistries;
 import net.minecraftforge.registries.RegistryObject;
@@ -19,6 +20,9 @@ public class ModBlocks {
     public static final DeferredRegister<Item> ITEMS = 
         DeferredRegister.create(ForgeRegistries.ITEMS, EnhancedATMMod.MODID);
     
+    public static final DeferredRegister<BlockEntityType<?>> BLOCK_ENTITIES = 
+        DeferredRegister.create(ForgeRegistries.BLOCK_ENTITY_TYPES, EnhancedATMMod.MODID);
+    
     // Bank Permission Block - Special admin-only block that enables ATM functionality
     public static final RegistryObject<Block> BANK_PERMISSION_BLOCK = BLOCKS.register("bank_permission_block",
         BankPermissionBlock::new);
@@ -26,4 +30,9 @@ public class ModBlocks {
     // Block Item for Bank Permission Block
     public static final RegistryObject<Item> BANK_PERMISSION_BLOCK_ITEM = ITEMS.register("bank_permission_block",
         () -> new BlockItem(BANK_PERMISSION_BLOCK.get(), new Item.Properties()));
-}
+    
+    // Per-block radius and currency whitelist of the Bank Permission Block
+    public static final RegistryObject<BlockEntityType<BankPermissionBlockEntity>> BANK_PERMISSION_BLOCK_ENTITY = 
+        BLOCK_ENTITIES.register("bank_permission_block",
+            () -> BlockEntityType.Builder.of(BankPermissionBlockEntity::new, BANK_PERMISSION_BLOCK.get()).build(null));
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.infinix.enhancedatm.common.commands;
+
+import com.infinix.enhancedatm.common.data.AtmSessionManager;
+import com.mojang.brigadier.CommandDispatcher;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+
+/**
+ * Admin command listing who is using which ATM
+ */
+public class AtmSessionCommand {
+    
+    public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        dispatcher.register(Commands.literal("enhancedatm")
+            .then(Commands.literal("sessions")
+                .requires(source -> source.hasPermission(2)) // Require OP level 2
+                .executes(context -> list(context.getSource()))
+            )
+        );
+    }
+    
+    private static int list(CommandSourceStack source) {
+        int count = AtmSessionManager.getSessions().size();
+        source.sendSuccess(() -> Component.literal("§6[Enhanced ATM] §f" + count + " open ATM session(s)"), false);
+        
+        long now = source.getServer().overworld().getGameTime();
+        for (AtmSessionManager.Session session : AtmSessionManager.getSessions()) {
+            long seconds = Math.max(0L, now - session.getOpenedAt()) / 20L;
+            source.sendSuccess(() -> Component.literal("§7  " + session.getPlayer().getName().getString() + 
+                " at " + session.getAtmPos().toShortString() + " in " + session.getDimension().location() + 
+                ", " + seconds + "s" + (session.isValid() ? "" : " §c(closing)")), false);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,69 @@
+package com.infinix.enhancedatm.common.commands;
+
+import com.infinix.enhancedatm.common.data.BankPermissionIndex;
+import com.infinix.enhancedatm.common.data.PermissionVerdictCache;
+import com.infinix.enhancedatm.common.utils.BankPermissionChecker;
+import com.mojang.brigadier.CommandDispatcher;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerLevel;
+
+/**
+ * Admin commands for the Bank Permission index
+ */
+public class BankPermissionCommand {
+    
+    public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        dispatcher.register(Commands.literal("enhancedatm")
+            .then(Commands.literal("permissions")
+                .requires(source -> source.hasPermission(2)) // Require OP level 2
+                .then(Commands.literal("rebuild")
+                    .executes(context -> rebuild(context.getSource(), false))
+                    .then(Commands.literal("complete")
+                        .executes(context -> rebuild(context.getSource(), true))
+                    )
+                )
+                .then(Commands.literal("status")
+                    .executes(context -> status(context.getSource()))
+                )
+            )
+        );
+    }
+    
+    /**
+     * Rescan the loaded chunks of the sender's dimension and replace their index entries
+     * With "complete" the index is also marked complete, which lets denials be cached and skips the
+     * fallback section scan, run it on a legacy world once every area holding permission blocks has been loaded
+     */
+    private static int rebuild(CommandSourceStack source, boolean markComplete) {
+        ServerLevel level = source.getLevel();
+        int chunks = BankPermissionChecker.rebuildLoadedChunks(level);
+        BankPermissionIndex index = BankPermissionIndex.get(level);
+        int blocks = index.size();
+        if (markComplete) {
+            index.markComplete();
+        }
+        
+        source.sendSuccess(() -> Component.literal("§a[Enhanced ATM] §fRescanned " + chunks + 
+            " loaded chunks in " + level.dimension().location() + ", " + blocks + " Bank Permission Block(s) indexed" + 
+            (markComplete ? ", index marked complete" : "")), true);
+        return chunks;
+    }
+    
+    private static int status(CommandSourceStack source) {
+        ServerLevel level = source.getLevel();
+        BankPermissionIndex index = BankPermissionIndex.get(level);
+        
+        PermissionVerdictCache verdicts = index.getVerdicts();
+        
+        source.sendSuccess(() -> Component.literal("§6[Enhanced ATM] §f" + level.dimension().location() + ": " + 
+            index.size() + " Bank Permission Block(s) indexed, largest radius " + 
+            index.getMaxRadius(BankPermissionChecker.getPermissionRange()) + 
+            (index.isComplete() ? "" : " §e(legacy world, misses fall back to a section scan until /enhancedatm permissions rebuild complete)")), false);
+        source.sendSuccess(() -> Component.literal("§7  Verdict cache: " + verdicts.size() + " ATM(s), " + 
+            verdicts.getHits() + " hits, " + verdicts.getMisses() + " misses, " + 
+            verdicts.getInvalidations() + " invalidations"), false);
+        return index.size();
+    }
+}
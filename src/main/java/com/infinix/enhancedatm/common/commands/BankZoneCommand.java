@@ -0,0 +1,152 @@
+package com.infinix.enhancedatm.common.commands;
+
+import com.infinix.enhancedatm.common.data.AtmSessionManager;
+import com.infinix.enhancedatm.common.data.BankZone;
+import com.infinix.enhancedatm.common.data.BankZoneData;
+import com.infinix.enhancedatm.common.money.CurrencyId;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.DoubleArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.commands.arguments.coordinates.BlockPosArgument;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.chat.Component;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Admin commands to define bank zones in the sender's dimension
+ */
+public class BankZoneCommand {
+    
+    public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        dispatcher.register(Commands.literal("enhancedatm")
+            .then(Commands.literal("zone")
+                .requires(source -> source.hasPermission(2)) // Require OP level 2
+                .then(Commands.literal("add")
+                    .then(Commands.argument("name", StringArgumentType.word())
+                        .then(Commands.argument("from", BlockPosArgument.blockPos())
+                            .then(Commands.argument("to", BlockPosArgument.blockPos())
+                                .executes(context -> add(context.getSource(),
+                                    StringArgumentType.getString(context, "name"),
+                                    BlockPosArgument.getBlockPos(context, "from"),
+                                    BlockPosArgument.getBlockPos(context, "to")))
+                            )
+                        )
+                    )
+                )
+                .then(Commands.literal("remove")
+                    .then(Commands.argument("name", StringArgumentType.word())
+                        .executes(context -> remove(context.getSource(), StringArgumentType.getString(context, "name")))
+                    )
+                )
+                .then(Commands.literal("list")
+                    .executes(context -> list(context.getSource()))
+                )
+                .then(Commands.literal("fee")
+                    .then(Commands.argument("name", StringArgumentType.word())
+                        .then(Commands.argument("percent", DoubleArgumentType.doubleArg(0.0, 100.0))
+                            .executes(context -> fee(context.getSource(),
+                                StringArgumentType.getString(context, "name"),
+                                DoubleArgumentType.getDouble(context, "percent")))
+                        )
+                    )
+                )
+                .then(Commands.literal("currencies")
+                    .then(Commands.argument("name", StringArgumentType.word())
+                        .then(Commands.argument("codes", StringArgumentType.greedyString())
+                            .executes(context -> currencies(context.getSource(),
+                                StringArgumentType.getString(context, "name"),
+                                StringArgumentType.getString(context, "codes")))
+                        )
+                    )
+                )
+            )
+        );
+    }
+    
+    private static int add(CommandSourceStack source, String name, BlockPos from, BlockPos to) {
+        BankZoneData data = BankZoneData.get(source.getLevel());
+        BankZone existing = data.getZone(name);
+        
+        // Redefining the bounds of a zone keeps its currencies and fee
+        BankZone zone = existing != null
+            ? new BankZone(name, from, to, existing.getCurrencies(), existing.getFeePercent())
+            : new BankZone(name, from, to, EnumSet.noneOf(CurrencyId.class), 0.0);
+        data.put(zone);
+        // Shrinking a zone may leave open ATMs without permission
+        AtmSessionManager.recheckPermissions(source.getLevel());
+        
+        source.sendSuccess(() -> Component.literal("§a[Enhanced ATM] §f" + (existing != null ? "Updated" : "Created") + 
+            " bank zone " + zone), true);
+        return 1;
+    }
+    
+    private static int remove(CommandSourceStack source, String name) {
+        if (!BankZoneData.get(source.getLevel()).remove(name)) {
+            source.sendFailure(Component.literal("Unknown bank zone: " + name));
+            return 0;
+        }
+        AtmSessionManager.recheckPermissions(source.getLevel());
+        
+        source.sendSuccess(() -> Component.literal("§a[Enhanced ATM] §fRemoved bank zone " + name), true);
+        return 1;
+    }
+    
+    private static int list(CommandSourceStack source) {
+        BankZoneData data = BankZoneData.get(source.getLevel());
+        
+        source.sendSuccess(() -> Component.literal("§6[Enhanced ATM] §f" + source.getLevel().dimension().location() + 
+            ": " + data.getZones().size() + " bank zone(s)"), false);
+        for (BankZone zone : data.getZones()) {
+            String currencies = zone.getCurrencies().isEmpty() ? "all currencies" : zone.getCurrencies().toString();
+            source.sendSuccess(() -> Component.literal("§7  " + zone + ", " + currencies + ", fee " + 
+                zone.getFeePercent() + "%"), false);
+        }
+        return data.getZones().size();
+    }
+    
+    private static int fee(CommandSourceStack source, String name, double percent) {
+        BankZoneData data = BankZoneData.get(source.getLevel());
+        BankZone zone = data.getZone(name);
+        if (zone == null) {
+            source.sendFailure(Component.literal("Unknown bank zone: " + name));
+            return 0;
+        }
+        
+        data.put(zone.withFee(percent));
+        source.sendSuccess(() -> Component.literal("§a[Enhanced ATM] §fExchange fee of " + name + " set to " + percent + "%"), true);
+        return 1;
+    }
+    
+    /**
+     * Restrict a zone to a space separated list of currency codes, or "all" to lift the restriction
+     */
+    private static int currencies(CommandSourceStack source, String name, String codes) {
+        BankZoneData data = BankZoneData.get(source.getLevel());
+        BankZone zone = data.getZone(name);
+        if (zone == null) {
+            source.sendFailure(Component.literal("Unknown bank zone: " + name));
+            return 0;
+        }
+        
+        Set<CurrencyId> currencies = EnumSet.noneOf(CurrencyId.class);
+        if (!codes.trim().equalsIgnoreCase("all")) {
+            for (String code : codes.trim().split("[\\s,]+")) {
+                CurrencyId currency = CurrencyId.fromCode(code);
+                if (currency == null) {
+                    source.sendFailure(Component.literal("Unknown currency: " + code));
+                    return 0;
+                }
+                currencies.add(currency);
+            }
+        }
+        
+        data.put(zone.withCurrencies(currencies));
+        source.sendSuccess(() -> Component.literal("§a[Enhanced ATM] §fCurrencies of " + name + " set to " + 
+            (currencies.isEmpty() ? "all" : currencies.toString())), true);
+        return 1;
+    }
+}
@@ -1,16 +1,27 @@
 package com.infinix.enhancedatm.common.commands;
 
+import com.infinix.enhancedatm.common.blocks.BankPermissionBlockEntity;
 import com.infinix.enhancedatm.common.blocks.ModBlocks;
+import com.infinix.enhancedatm.common.data.BankPermissionIndex;
+import com.infinix.enhancedatm.common.money.CurrencyId;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.RequiredArgumentBuilder;
 import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
 import net.minecraft.commands.arguments.EntityArgument;
+import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.item.BlockItem;
 import net.minecraft.world.item.ItemStack;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Command to give Bank Permission Block to administrators
  * Only players with permission level 2 (OP) can use this command
@@ -22,53 +33,102 @@ public class GiveBankPermissionCommand {
             Commands.literal("enhancedatm")
                 .requires(source -> source.hasPermission(2)) // Requires OP level 2
                 .then(Commands.literal("givebankpermission")
-                    .executes(context -> giveBankPermission(context, 1))
-                    .then(Commands.argument("amount", IntegerArgumentType.integer(1, 64))
-                        .executes(context -> giveBankPermission(
-                            context, 
-                            IntegerArgumentType.getInteger(context, "amount")
-                        ))
-                    )
+                    .executes(context -> giveBankPermission(context, 1, 0, ""))
+                    .then(amountArguments(GiveBankPermissionCommand::giveBankPermission))
                     .then(Commands.argument("player", EntityArgument.player())
-                        .executes(context -> giveBankPermissionToPlayer(
-                            context, 
+                        .executes(context -> giveBlockToPlayer(
+                            context.getSource(), 
                             EntityArgument.getPlayer(context, "player"),
                             1
                         ))
-                        .then(Commands.argument("amount", IntegerArgumentType.integer(1, 64))
-                            .executes(context -> giveBankPermissionToPlayer(
-                                context,
-                                EntityArgument.getPlayer(context, "player"),
-                                IntegerArgumentType.getInteger(context, "amount")
-                            ))
-                        )
+                        .then(amountArguments((context, amount, radius, currencies) -> giveBlockToPlayer(
+                            context.getSource(),
+                            EntityArgument.getPlayer(context, "player"),
+                            amount, radius, currencies
+                        )))
                     )
                 )
         );
     }
     
-    private static int giveBankPermission(CommandContext<CommandSourceStack> context, int amount) {
+    /**
+     * Who receives the blocks, given the parsed amount, radius and currency codes
+     */
+    @FunctionalInterface
+    private interface GiveAction {
+        int give(CommandContext<CommandSourceStack> context, int amount, int radius, String currencies) throws CommandSyntaxException;
+    }
+    
+    /**
+     * Shared "amount [radius [currencies]]" arguments, so giving to oneself and to another player accept the same settings
+     */
+    private static RequiredArgumentBuilder<CommandSourceStack, Integer> amountArguments(GiveAction action) {
+        return Commands.argument("amount", IntegerArgumentType.integer(1, 64))
+            .executes(context -> action.give(context, IntegerArgumentType.getInteger(context, "amount"), 0, ""))
+            .then(Commands.argument("radius", IntegerArgumentType.integer(1, BankPermissionIndex.MAX_RADIUS))
+                .executes(context -> action.give(
+                    context,
+                    IntegerArgumentType.getInteger(context, "amount"),
+                    IntegerArgumentType.getInteger(context, "radius"),
+                    ""
+                ))
+                // Space separated currency codes the ATMs in range may handle
+                .then(Commands.argument("currencies", StringArgumentType.greedyString())
+                    .executes(context -> action.give(
+                        context,
+                        IntegerArgumentType.getInteger(context, "amount"),
+                        IntegerArgumentType.getInteger(context, "radius"),
+                        StringArgumentType.getString(context, "currencies")
+                    ))
+                )
+            );
+    }
+    
+    private static int giveBankPermission(CommandContext<CommandSourceStack> context, int amount, int radius, String currencies) {
         try {
             ServerPlayer player = context.getSource().getPlayerOrException();
-            return giveBlockToPlayer(context.getSource(), player, amount);
+            return giveBlockToPlayer(context.getSource(), player, amount, radius, currencies);
         } catch (Exception e) {
             context.getSource().sendFailure(Component.literal("This command can only be executed by a player!"));
             return 0;
         }
     }
     
-    private static int giveBankPermissionToPlayer(CommandContext<CommandSourceStack> context, ServerPlayer targetPlayer, int amount) {
-        return giveBlockToPlayer(context.getSource(), targetPlayer, amount);
+    private static int giveBlockToPlayer(CommandSourceStack source, ServerPlayer player, int amount) {
+        return giveBlockToPlayer(source, player, amount, 0, "");
     }
     
-    private static int giveBlockToPlayer(CommandSourceStack source, ServerPlayer player, int amount) {
+    /**
+     * Give blocks preconfigured with a radius (0 for the configured default) and a currency whitelist (empty for all)
+     */
+    private static int giveBlockToPlayer(CommandSourceStack source, ServerPlayer player, int amount, int radius, String currencyCodes) {
+        Set<CurrencyId> currencies = EnumSet.noneOf(CurrencyId.class);
+        for (String code : currencyCodes.trim().split("[\\s,]+")) {
+            if (code.isEmpty()) continue;
+            
+            CurrencyId currency = CurrencyId.fromCode(code);
+            if (currency == null) {
+                source.sendFailure(Component.literal("§cUnknown currency: " + code));
+                return 0;
+            }
+            currencies.add(currency);
+        }
+        
         ItemStack blockStack = new ItemStack(ModBlocks.BANK_PERMISSION_BLOCK_ITEM.get(), amount);
+        if (radius > 0 || !currencies.isEmpty()) {
+            // Applied to the block entity when the block is placed
+            CompoundTag settings = new CompoundTag();
+            BankPermissionBlockEntity.writeSettings(settings, radius, currencies);
+            BlockItem.setBlockEntityData(blockStack, ModBlocks.BANK_PERMISSION_BLOCK_ENTITY.get(), settings);
+        }
+        String settingsText = (radius > 0 ? " with radius " + radius : "") + 
+            (currencies.isEmpty() ? "" : " for " + currencies);
         
         boolean success = player.getInventory().add(blockStack);
         
         if (success) {
             source.sendSuccess(
-                () -> Component.literal("§aGave " + amount + " Bank Permission Block(s) to " + player.getName().getString()),
+                () -> Component.literal("§aGave " + amount + " Bank Permission Block(s)" + settingsText + " to " + player.getName().getString()),
                 true
             );
             
@@ -1,16 +1,16 @@
 package com.infinix.enhancedatm.common.commands;
 
 import com.infinix.enhancedatm.common.config.ATMGuiConfig;
-import com.infinix.enhancedatm.common.network.NetworkHandler;
-import com.infinix.enhancedatm.common.network.packets.SyncGuiConfigPacket;
+import com.infinix.enhancedatm.common.config.GuiConfigCodec;
+import com.infinix.enhancedatm.common.network.packets.GuiConfigDeltaPacket;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.context.CommandContext;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
 import net.minecraft.network.chat.Component;
-import net.minecraft.server.level.ServerPlayer;
-import net.minecraftforge.network.PacketDistributor;
+
+import java.util.concurrent.CompletionException;
 
 /**
  * Command to reload Enhanced ATM GUI configuration
@@ -35,87 +35,89 @@ public class ReloadATMConfigCommand {
     }
     
     private static int execute(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
-        try {
-            // Reload the server-side configuration
-            ATMGuiConfig.reload();
+        CommandSourceStack source = context.getSource();
+        
+        // Remember the version clients currently have
+        int[] baseFields = GuiConfigCodec.currentFields();
+        long baseHash = GuiConfigCodec.currentHash();
+        
+        // Reload the server-side configuration, the file is read off the server thread
+        ATMGuiConfig.reloadAsync(source.getServer()).whenCompleteAsync((config, error) -> {
+            if (error != null) {
+                source.sendFailure(
+                    Component.literal("§c[Enhanced ATM] §fError al recargar configuración: " + rootMessage(error))
+                );
+                return;
+            }
             
             // Sync configuration with all connected clients
-            String configJson = ATMGuiConfig.getConfigAsJson();
-            SyncGuiConfigPacket syncPacket = new SyncGuiConfigPacket(configJson);
+            GuiConfigDeltaPacket.broadcastSince(baseFields, baseHash);
             
-            // Send to all players
-            for (ServerPlayer player : context.getSource().getServer().getPlayerList().getPlayers()) {
-                NetworkHandler.INSTANCE.send(PacketDistributor.PLAYER.with(() -> player), syncPacket);
-            }
-            
-            context.getSource().sendSuccess(() -> 
+            source.sendSuccess(() -> 
                 Component.literal("§a[Enhanced ATM] §fConfiguración recargada y sincronizada con " + 
-                    context.getSource().getServer().getPlayerList().getPlayerCount() + " jugadores"), 
+                    source.getServer().getPlayerList().getPlayerCount() + " jugadores"), 
                 true);
-            
-            return 1;
-        } catch (Exception e) {
-            context.getSource().sendFailure(
-                Component.literal("§c[Enhanced ATM] §fError al recargar configuración: " + e.getMessage())
-            );
-            return 0;
-        }
+        }, source.getServer());
+        
+        return 1;
     }
-
+    
     private static int executeForceUpdate(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
-        try {
-            // Force update the server-side configuration
-            ATMGuiConfig.forceUpdate();
+        CommandSourceStack source = context.getSource();
+        
+        // Remember the version clients currently have
+        int[] baseFields = GuiConfigCodec.currentFields();
+        long baseHash = GuiConfigCodec.currentHash();
+        
+        // Force update the server-side configuration, the file is written off the server thread
+        ATMGuiConfig.forceUpdateAsync(source.getServer()).whenCompleteAsync((config, error) -> {
+            if (error != null) {
+                source.sendFailure(
+                    Component.literal("§c[Enhanced ATM] §fError al actualizar configuración: " + rootMessage(error))
+                );
+                return;
+            }
             
             // Sync configuration with all connected clients
-            String configJson = ATMGuiConfig.getConfigAsJson();
-            SyncGuiConfigPacket syncPacket = new SyncGuiConfigPacket(configJson);
-            
-            // Send to all players
-            for (ServerPlayer player : context.getSource().getServer().getPlayerList().getPlayers()) {
-                NetworkHandler.INSTANCE.send(PacketDistributor.PLAYER.with(() -> player), syncPacket);
-            }
+            GuiConfigDeltaPacket.broadcastSince(baseFields, baseHash);
             
-            context.getSource().sendSuccess(() -> 
+            source.sendSuccess(() -> 
                 Component.literal("§a[Enhanced ATM] §fConfiguración actualizada forzosamente y sincronizada con " + 
-                    context.getSource().getServer().getPlayerList().getPlayerCount() + " jugadores"), 
+                    source.getServer().getPlayerList().getPlayerCount() + " jugadores"), 
                 true);
-            
-            return 1;
-        } catch (Exception e) {
-            context.getSource().sendFailure(
-                Component.literal("§c[Enhanced ATM] §fError al actualizar configuración: " + e.getMessage())
-            );
-            return 0;
-        }
+        }, source.getServer());
+        
+        return 1;
     }
-
+    
     private static int executeRegenerate(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
-        try {
-            // Regenerate the server-side configuration with all defaults
-            ATMGuiConfig.getInstance().saveConfig();
-            
-            // Sync configuration with all connected clients
-            String configJson = ATMGuiConfig.getConfigAsJson();
-            SyncGuiConfigPacket syncPacket = new SyncGuiConfigPacket(configJson);
-            
-            // Send to all players
-            for (ServerPlayer player : context.getSource().getServer().getPlayerList().getPlayers()) {
-                NetworkHandler.INSTANCE.send(PacketDistributor.PLAYER.with(() -> player), syncPacket);
+        CommandSourceStack source = context.getSource();
+        
+        // Regenerate the server-side configuration with all defaults, written off the server thread
+        ATMGuiConfig.saveAsync().whenCompleteAsync((ignored, error) -> {
+            if (error != null) {
+                source.sendFailure(
+                    Component.literal("§c[Enhanced ATM] §fError al regenerar configuración: " + rootMessage(error))
+                );
+                return;
             }
             
-            context.getSource().sendSuccess(() -> 
+            // Saving does not change any field, clients are already up to date
+            source.sendSuccess(() -> 
                 Component.literal("§a[Enhanced ATM] §fConfiguración regenerada completamente y sincronizada con " + 
-                    context.getSource().getServer().getPlayerList().getPlayerCount() + " jugadores. " +
+                    source.getServer().getPlayerList().getPlayerCount() + " jugadores. " +
                     "§eIncluye todas las nuevas propiedades como cardSlot."), 
                 true);
-            
-            return 1;
-        } catch (Exception e) {
-            context.getSource().sendFailure(
-                Component.literal("§c[Enhanced ATM] §fError al regenerar configuración: " + e.getMessage())
-            );
-            return 0;
-        }
+        }, source.getServer());
+        
+        return 1;
+    }
+    
+    /**
+     * Message of the exception that failed a config future
+     */
+    private static String rootMessage(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause.getMessage();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,55 @@
+package com.infinix.enhancedatm.common.commands;
+
+import com.infinix.enhancedatm.common.data.WalletIndex;
+import com.mojang.brigadier.CommandDispatcher;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.commands.arguments.EntityArgument;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.List;
+
+/**
+ * Debug command to check a player's cached wallet against a full inventory rescan
+ */
+public class WalletCommand {
+    
+    public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        dispatcher.register(Commands.literal("enhancedatm")
+            .then(Commands.literal("wallet")
+                .requires(source -> source.hasPermission(2)) // Require OP level 2
+                .then(Commands.literal("verify")
+                    .executes(context -> verify(context.getSource(), context.getSource().getPlayerOrException()))
+                    .then(Commands.argument("player", EntityArgument.player())
+                        .executes(context -> verify(context.getSource(), EntityArgument.getPlayer(context, "player")))
+                    )
+                )
+            )
+        );
+    }
+    
+    private static int verify(CommandSourceStack source, ServerPlayer player) {
+        // Apply pending slot updates first, those are not drift
+        WalletIndex.flush(player);
+        WalletIndex wallet = WalletIndex.get(player);
+        List<String> mismatches = wallet.verify();
+        
+        if (mismatches.isEmpty()) {
+            source.sendSuccess(() -> Component.literal("§a[Enhanced ATM] §fWallet cache of " + 
+                player.getName().getString() + " matches a full rescan"), false);
+            return 1;
+        }
+        
+        source.sendFailure(Component.literal("§c[Enhanced ATM] §fWallet cache of " + 
+            player.getName().getString() + " differs from a full rescan:"));
+        for (String mismatch : mismatches) {
+            source.sendFailure(Component.literal("§7  " + mismatch));
+        }
+        
+        // Resync so the cache is usable again
+        wallet.rebuild();
+        System.err.println("Enhanced ATM: Wallet cache drift for " + player.getName().getString() + ": " + mismatches);
+        return 0;
+    }
+}
@@ -2,100 +2,203 @@ package com.infinix.enhancedatm.common.config;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import net.minecraftforge.fml.loading.FMLPaths;
 
 import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Configuration class for Enhanced ATM GUI positions and settings
+ * Each instance is an immutable snapshot built once by the file loader or the binary codec,
+ * so the render thread and menus can read the current one without locking.
+ * File I/O for reloads runs on a loader thread, the main thread only swaps the reference
  */
 public class ATMGuiConfig {
     
-    private static ATMGuiConfig instance;
+    private static volatile ATMGuiConfig instance;
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
     private static final String CONFIG_FILE_NAME = "gui_config.json";
     private static final String CONFIG_VERSION = "1.2.0"; // Version with robust null detection for boxed types
     
+    // Single daemon thread for reading and writing the configuration file
+    private static final ExecutorService LOADER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Enhanced ATM config loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // Bumped every time the configuration is loaded or synced, lets the screen cache what it derives from it
+    private static volatile int revision = 0;
+    
+    // Defaults, in the order the settings are declared below
+    private static final LabelPosition[] DEFAULT_LABELS = {
+        new LabelPosition(227, 5), new LabelPosition(97, 25), new LabelPosition(193, 5),
+        new LabelPosition(72, 65), new LabelPosition(10, 88)
+    };
+    private static final ButtonPosition[] DEFAULT_BUTTONS = {
+        new ButtonPosition(5, 202, 80, 20), new ButtonPosition(98, 202, 35, 20), new ButtonPosition(148, 202, 35, 20),
+        new ButtonPosition(190, 108, 50, 20), new ButtonPosition(190, 132, 50, 20), new ButtonPosition(190, 157, 50, 20)
+    };
+    private static final LabelPosition DEFAULT_ARROW = new LabelPosition(207, 137);
+    private static final GridPosition[] DEFAULT_GRIDS = {
+        new GridPosition(5, 39), new GridPosition(6, 108), new GridPosition(86, 54)
+    };
+    private static final int[] DEFAULT_COLORS = {0xFFFFFF, 0x00FF00, 0xFFFFFF, 0xFFFFFF, 0xFFFFFF};
+    private static final boolean[] DEFAULT_FLAGS = {true, true, true, true, true};
+    
+    // Setting names in the configuration file, same order as the defaults
+    private static final String[] LABEL_NAMES = {"exchangeRateLabel", "gridTotalLabel", "amountLabel", "cardBalanceLabel", "titleLabel"};
+    private static final String[] BUTTON_NAMES = {"amountField", "sourceCurrencyButton", "targetCurrencyButton",
+        "depositButton", "withdrawButton", "detectMoneyButton"};
+    private static final String[] GRID_NAMES = {"denominationGrid", "playerInventory", "cardSlot"};
+    private static final String[] COLOR_NAMES = {"exchangeRateLabelColor", "gridTotalLabelColor", "amountLabelColor",
+        "cardBalanceLabelColor", "titleLabelColor"};
+    private static final String[] FLAG_NAMES = {"showExchangeRateLabel", "showGridTotalLabel", "showAmountLabel",
+        "showCardBalanceLabel", "showTitleLabel"};
+    
     // Configuration version (for auto-update detection)
-    public String configVersion = CONFIG_VERSION;
-    
-    // Label positions (relative to GUI top-left) - Updated default configuration
-    public LabelPosition exchangeRateLabel = new LabelPosition(227, 5);
-    public LabelPosition gridTotalLabel = new LabelPosition(97, 25);
-    public LabelPosition amountLabel = new LabelPosition(193, 5);
-    public LabelPosition cardBalanceLabel = new LabelPosition(72, 65);
-    public LabelPosition titleLabel = new LabelPosition(10, 88);
-    
-    // Button positions (relative to GUI top-left) - Updated default configuration
-    public ButtonPosition amountField = new ButtonPosition(5, 202, 80, 20);
-    public ButtonPosition sourceCurrencyButton = new ButtonPosition(98, 202, 35, 20);
-    public ButtonPosition targetCurrencyButton = new ButtonPosition(148, 202, 35, 20);
-    public ButtonPosition depositButton = new ButtonPosition(190, 108, 50, 20);
-    public ButtonPosition withdrawButton = new ButtonPosition(190, 132, 50, 20);
-    public ButtonPosition detectMoneyButton = new ButtonPosition(190, 157, 50, 20);
+    public final String configVersion;
+    
+    // Label positions (relative to GUI top-left)
+    public final LabelPosition exchangeRateLabel;
+    public final LabelPosition gridTotalLabel;
+    public final LabelPosition amountLabel;
+    public final LabelPosition cardBalanceLabel;
+    public final LabelPosition titleLabel;
+    
+    // Button positions (relative to GUI top-left)
+    public final ButtonPosition amountField;
+    public final ButtonPosition sourceCurrencyButton;
+    public final ButtonPosition targetCurrencyButton;
+    public final ButtonPosition depositButton;
+    public final ButtonPosition withdrawButton;
+    public final ButtonPosition detectMoneyButton;
     
     // Arrow symbol position
-    public LabelPosition conversionArrow = new LabelPosition(207, 137);
+    public final LabelPosition conversionArrow;
     
-    // Grid positions - Updated default configuration
-    public GridPosition denominationGrid = new GridPosition(5, 39);
-    public GridPosition playerInventory = new GridPosition(6, 108);
-    public GridPosition cardSlot = new GridPosition(86, 54);
+    // Grid positions
+    public final GridPosition denominationGrid;
+    public final GridPosition playerInventory;
+    public final GridPosition cardSlot;
     
     // Label colors (in hex format)
-    public int exchangeRateLabelColor = 0xFFFFFF; // White
-    public int gridTotalLabelColor = 0x00FF00;   // Green
-    public int amountLabelColor = 0xFFFFFF;      // White
-    public int cardBalanceLabelColor = 0xFFFFFF; // White
-    public int titleLabelColor = 0xFFFFFF;       // White
+    public final int exchangeRateLabelColor;
+    public final int gridTotalLabelColor;
+    public final int amountLabelColor;
+    public final int cardBalanceLabelColor;
+    public final int titleLabelColor;
     
     // Label visibility toggles
-    public boolean showExchangeRateLabel = true;
-    public boolean showGridTotalLabel = true;
-    public boolean showAmountLabel = true;
-    public boolean showCardBalanceLabel = true;
-    public boolean showTitleLabel = true;
+    public final boolean showExchangeRateLabel;
+    public final boolean showGridTotalLabel;
+    public final boolean showAmountLabel;
+    public final boolean showCardBalanceLabel;
+    public final boolean showTitleLabel;
+    
+    /**
+     * Default configuration
+     */
+    public ATMGuiConfig() {
+        this(CONFIG_VERSION, DEFAULT_LABELS, DEFAULT_BUTTONS, DEFAULT_ARROW, DEFAULT_GRIDS, DEFAULT_COLORS, DEFAULT_FLAGS);
+    }
     
     /**
-     * Get the singleton instance
+     * Configuration of the current version, each array in declaration order (used by the binary codec)
+     */
+    ATMGuiConfig(LabelPosition[] labels, ButtonPosition[] buttons, LabelPosition conversionArrow,
+                 GridPosition[] grids, int[] colors, boolean[] flags) {
+        this(CONFIG_VERSION, labels, buttons, conversionArrow, grids, colors, flags);
+    }
+    
+    private ATMGuiConfig(String configVersion, LabelPosition[] labels, ButtonPosition[] buttons, LabelPosition conversionArrow,
+                         GridPosition[] grids, int[] colors, boolean[] flags) {
+        this.configVersion = configVersion;
+        
+        this.exchangeRateLabel = labels[0];
+        this.gridTotalLabel = labels[1];
+        this.amountLabel = labels[2];
+        this.cardBalanceLabel = labels[3];
+        this.titleLabel = labels[4];
+        
+        this.amountField = buttons[0];
+        this.sourceCurrencyButton = buttons[1];
+        this.targetCurrencyButton = buttons[2];
+        this.depositButton = buttons[3];
+        this.withdrawButton = buttons[4];
+        this.detectMoneyButton = buttons[5];
+        
+        this.conversionArrow = conversionArrow;
+        
+        this.denominationGrid = grids[0];
+        this.playerInventory = grids[1];
+        this.cardSlot = grids[2];
+        
+        this.exchangeRateLabelColor = colors[0];
+        this.gridTotalLabelColor = colors[1];
+        this.amountLabelColor = colors[2];
+        this.cardBalanceLabelColor = colors[3];
+        this.titleLabelColor = colors[4];
+        
+        this.showExchangeRateLabel = flags[0];
+        this.showGridTotalLabel = flags[1];
+        this.showAmountLabel = flags[2];
+        this.showCardBalanceLabel = flags[3];
+        this.showTitleLabel = flags[4];
+    }
+    
+    /**
+     * Get the current snapshot, loading it on first use
      */
     public static ATMGuiConfig getInstance() {
-        if (instance == null) {
-            instance = new ATMGuiConfig();
-            System.out.println("Enhanced ATM: Creating new configuration instance");
-            instance.loadConfig();
+        ATMGuiConfig current = instance;
+        if (current == null) {
+            synchronized (ATMGuiConfig.class) {
+                current = instance;
+                if (current == null) {
+                    System.out.println("Enhanced ATM: Creating new configuration instance");
+                    current = readFromFile();
+                    if (current == null) {
+                        current = new ATMGuiConfig();
+                    }
+                    publish(current);
+                }
+            }
         }
-        return instance;
+        return current;
     }
     
     /**
      * Force reload configuration - useful for server startup checks
      */
     public static ATMGuiConfig getInstanceAndForceCheck() {
-        if (instance == null) {
-            instance = new ATMGuiConfig();
-            System.out.println("Enhanced ATM: Creating new configuration instance with force check");
-        } else {
-            System.out.println("Enhanced ATM: Force checking existing configuration instance");
-        }
+        System.out.println("Enhanced ATM: Force checking configuration file");
         
+        ATMGuiConfig loaded;
         try {
-            System.out.println("Enhanced ATM: *** CALLING loadConfig() FROM getInstanceAndForceCheck() ***");
-            instance.loadConfig(); // Always reload to check for updates
-            System.out.println("Enhanced ATM: *** loadConfig() COMPLETED SUCCESSFULLY ***");
+            loaded = readFromFile(); // Always reload to check for updates
         } catch (Exception e) {
             System.err.println("Enhanced ATM: *** CRITICAL ERROR IN getInstanceAndForceCheck() ***");
             System.err.println("Enhanced ATM: Error details: " + e.getMessage());
             e.printStackTrace();
-            
-            // Try to create a basic instance with defaults as fallback
+            loaded = null;
+        }
+        
+        if (loaded == null) {
+            // Fall back to defaults and write them out
+            System.out.println("Enhanced ATM: Attempting fallback configuration creation...");
+            loaded = new ATMGuiConfig();
             try {
-                System.out.println("Enhanced ATM: Attempting fallback configuration creation...");
-                instance.configVersion = CONFIG_VERSION;
-                instance.saveConfig();
+                loaded.saveConfig();
                 System.out.println("Enhanced ATM: Fallback configuration created successfully");
             } catch (Exception fallbackException) {
                 System.err.println("Enhanced ATM: Fallback also failed: " + fallbackException.getMessage());
@@ -103,212 +206,230 @@ public class ATMGuiConfig {
             }
         }
         
-        return instance;
+        publish(loaded);
+        return loaded;
     }
     
     /**
-     * Reload the configuration from file
+     * Read the configuration file on the loader thread without publishing it
+     * Fails if the file cannot be read or parsed, the current snapshot then stays in place
      */
-    public static void reload() {
-        if (instance != null) {
-            instance.loadConfig();
+    public static CompletableFuture<ATMGuiConfig> loadAsync() {
+        return CompletableFuture.supplyAsync(() -> {
+            ATMGuiConfig loaded = readFromFile();
+            if (loaded == null) {
+                throw new IllegalStateException("Could not read " + CONFIG_FILE_NAME);
+            }
+            return loaded;
+        }, LOADER);
+    }
+    
+    /**
+     * Reload the configuration from file, reading on the loader thread and publishing on the given main thread executor
+     */
+    public static CompletableFuture<ATMGuiConfig> reloadAsync(Executor mainThread) {
+        return loadAsync().thenApplyAsync(loaded -> {
+            publish(loaded);
             System.out.println("Enhanced ATM: GUI configuration reloaded");
-        }
+            return loaded;
+        }, mainThread);
     }
     
     /**
-     * Force update the configuration file with current defaults
+     * Rewrite the configuration file marked with the current version, the file is written on the loader thread
      * Useful for manually updating old configuration files
      */
-    public static void forceUpdate() {
-        if (instance == null) {
-            instance = new ATMGuiConfig();
-        }
-        instance.configVersion = CONFIG_VERSION;
-        instance.saveConfig();
-        System.out.println("Enhanced ATM: Configuration forcefully updated to version " + CONFIG_VERSION);
+    public static CompletableFuture<ATMGuiConfig> forceUpdateAsync(Executor mainThread) {
+        ATMGuiConfig updated = withCurrentVersion(getInstance());
+        return CompletableFuture.supplyAsync(() -> {
+            updated.saveConfig();
+            return updated;
+        }, LOADER).thenApplyAsync(saved -> {
+            publish(saved);
+            System.out.println("Enhanced ATM: Configuration forcefully updated to version " + CONFIG_VERSION);
+            return saved;
+        }, mainThread);
     }
     
-
+    /**
+     * Write the current snapshot to file on the loader thread
+     */
+    public static CompletableFuture<Void> saveAsync() {
+        ATMGuiConfig current = getInstance();
+        return CompletableFuture.runAsync(current::saveConfig, LOADER);
+    }
     
-
+    /**
+     * Make a snapshot the current configuration
+     * Must be called on the thread that owns the readers (server or client main thread)
+     */
+    public static void publish(ATMGuiConfig snapshot) {
+        instance = snapshot;
+        onConfigChanged(snapshot);
+    }
     
     /**
-     * Update configuration from JSON string (used for client sync)
+     * Refresh what is derived from the configuration after it was loaded or synced
      */
-    public static void updateFromJson(String json) {
-        try {
-            ATMGuiConfig loaded = GSON.fromJson(json, ATMGuiConfig.class);
-            if (loaded != null) {
-                // Ensure instance exists
-                if (instance == null) {
-                    instance = new ATMGuiConfig();
-                }
-                // Copy loaded values to current instance
-                instance.exchangeRateLabel = loaded.exchangeRateLabel != null ? loaded.exchangeRateLabel : new LabelPosition(227, 5);
-                instance.gridTotalLabel = loaded.gridTotalLabel != null ? loaded.gridTotalLabel : new LabelPosition(97, 5);
-                instance.amountLabel = loaded.amountLabel != null ? loaded.amountLabel : new LabelPosition(193, 5);
-                instance.cardBalanceLabel = loaded.cardBalanceLabel != null ? loaded.cardBalanceLabel : new LabelPosition(72, 65);
-                instance.titleLabel = loaded.titleLabel != null ? loaded.titleLabel : new LabelPosition(27, 88);
-                
-                // Button positions
-                instance.amountField = loaded.amountField != null ? loaded.amountField : new ButtonPosition(5, 202, 80, 20);
-                instance.sourceCurrencyButton = loaded.sourceCurrencyButton != null ? loaded.sourceCurrencyButton : new ButtonPosition(98, 202, 35, 20);
-                instance.targetCurrencyButton = loaded.targetCurrencyButton != null ? loaded.targetCurrencyButton : new ButtonPosition(148, 202, 35, 20);
-                instance.depositButton = loaded.depositButton != null ? loaded.depositButton : new ButtonPosition(190, 108, 50, 20);
-                instance.withdrawButton = loaded.withdrawButton != null ? loaded.withdrawButton : new ButtonPosition(190, 132, 50, 20);
-                instance.detectMoneyButton = loaded.detectMoneyButton != null ? loaded.detectMoneyButton : new ButtonPosition(190, 157, 50, 20);
-                
-                // Arrow position
-                instance.conversionArrow = loaded.conversionArrow != null ? loaded.conversionArrow : new LabelPosition(207, 137);
-                
-                // Grid positions
-                instance.denominationGrid = loaded.denominationGrid != null ? loaded.denominationGrid : new GridPosition(6, 40);
-                instance.playerInventory = loaded.playerInventory != null ? loaded.playerInventory : new GridPosition(6, 110);
-                instance.cardSlot = loaded.cardSlot != null ? loaded.cardSlot : new GridPosition(86, 54);
-                
-                instance.exchangeRateLabelColor = loaded.exchangeRateLabelColor;
-                instance.gridTotalLabelColor = loaded.gridTotalLabelColor;
-                instance.amountLabelColor = loaded.amountLabelColor;
-                instance.cardBalanceLabelColor = loaded.cardBalanceLabelColor;
-                instance.titleLabelColor = loaded.titleLabelColor;
-                
-                instance.showExchangeRateLabel = loaded.showExchangeRateLabel;
-                instance.showGridTotalLabel = loaded.showGridTotalLabel;
-                instance.showAmountLabel = loaded.showAmountLabel;
-                instance.showCardBalanceLabel = loaded.showCardBalanceLabel;
-                instance.showTitleLabel = loaded.showTitleLabel;
-                
-                // Update version to current
-                instance.configVersion = CONFIG_VERSION;
-                
-                System.out.println("Enhanced ATM: Configuration synced from server");
-            }
-        } catch (Exception e) {
-            System.err.println("Enhanced ATM: Failed to sync configuration from server: " + e.getMessage());
-        }
+    private static void onConfigChanged(ATMGuiConfig snapshot) {
+        SlotLayout.rebuild(snapshot);
+        revision++;
+    }
+    
+    /**
+     * Changes whenever the configuration is loaded or synced
+     */
+    public static int getRevision() {
+        return revision;
     }
     
     /**
-     * Get configuration as JSON string (for server sync)
+     * Update configuration from its binary encoding (client-side, from server or disk cache)
+     * Returns false when the bytes could not be decoded
      */
-    public static String getConfigAsJson() {
-        if (instance != null) {
-            return GSON.toJson(instance);
+    public static boolean updateFromBinary(byte[] data) {
+        ATMGuiConfig loaded = GuiConfigCodec.decode(data);
+        if (loaded == null) {
+            System.err.println("Enhanced ATM: Failed to decode synced GUI configuration");
+            return false;
         }
-        return "{}";
+        publish(loaded);
+        return true;
     }
     
     /**
-     * Load configuration from file - simple version, no auto-update
+     * Copy of a snapshot marked with the current configuration version
      */
-    private void loadConfig() {
-        try {
-            System.out.println("Enhanced ATM: Loading GUI configuration...");
-            
-            File configFile = getConfigFile();
-            System.out.println("Enhanced ATM: Configuration file path: " + configFile.getAbsolutePath());
-        
-            if (!configFile.exists()) {
-                // Create default config file only once
-                System.out.println("Enhanced ATM: Configuration file does not exist, creating default configuration...");
-                saveConfig();
-                System.out.println("Enhanced ATM: Created default GUI configuration file at: " + configFile.getAbsolutePath());
-                return;
+    private static ATMGuiConfig withCurrentVersion(ATMGuiConfig config) {
+        // Decoded configurations always carry the current version
+        return GuiConfigCodec.unflatten(GuiConfigCodec.flatten(config));
+    }
+    
+    /**
+     * Read and validate the configuration file into a new, unpublished snapshot
+     * Creates the file with defaults if it does not exist, returns null if it cannot be read or parsed
+     */
+    private static ATMGuiConfig readFromFile() {
+        System.out.println("Enhanced ATM: Loading GUI configuration...");
+        
+        File configFile = getConfigFile();
+        System.out.println("Enhanced ATM: Configuration file path: " + configFile.getAbsolutePath());
+        
+        if (!configFile.exists()) {
+            // Create default config file only once
+            System.out.println("Enhanced ATM: Configuration file does not exist, creating default configuration...");
+            ATMGuiConfig defaults = new ATMGuiConfig();
+            defaults.saveConfig();
+            System.out.println("Enhanced ATM: Created default GUI configuration file at: " + configFile.getAbsolutePath());
+            return defaults;
+        }
+        
+        // Check file permissions
+        if (!configFile.canRead()) {
+            System.err.println("Enhanced ATM: Cannot read configuration file: " + configFile.getAbsolutePath());
+            return null;
+        }
+        
+        try (FileReader reader = new FileReader(configFile)) {
+            JsonObject json = GSON.fromJson(reader, JsonObject.class);
+            if (json == null) {
+                System.err.println("Enhanced ATM: Failed to parse configuration file");
+                return null;
             }
             
-            // Check file permissions
-            if (!configFile.canRead()) {
-                System.err.println("Enhanced ATM: Cannot read configuration file: " + configFile.getAbsolutePath());
-                return;
-            }
+            ATMGuiConfig loaded = fromJson(json);
+            System.out.println("Enhanced ATM: GUI configuration loaded successfully (version: " + loaded.configVersion + ")");
+            return loaded;
+        } catch (IOException | JsonParseException e) {
+            System.err.println("Enhanced ATM: Failed to load GUI configuration: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Build a snapshot from a parsed configuration file
+     * Settings that are missing or of the wrong type fall back to their defaults, the loaded version is kept (no auto-update)
+     */
+    private static ATMGuiConfig fromJson(JsonObject json) {
+        LabelPosition[] labels = new LabelPosition[LABEL_NAMES.length];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = readLabel(json, LABEL_NAMES[i], DEFAULT_LABELS[i]);
+        }
         
-            try (FileReader reader = new FileReader(configFile)) {
-                System.out.println("Enhanced ATM: Loading configuration from file...");
-                ATMGuiConfig loaded = GSON.fromJson(reader, ATMGuiConfig.class);
-                if (loaded != null) {
-                    System.out.println("Enhanced ATM: Configuration loaded successfully");
-                    
-                    // Simply copy loaded values, using defaults for null values
-                    this.exchangeRateLabel = loaded.exchangeRateLabel != null ? loaded.exchangeRateLabel : new LabelPosition(227, 5);
-                    this.gridTotalLabel = loaded.gridTotalLabel != null ? loaded.gridTotalLabel : new LabelPosition(97, 25);
-                    this.amountLabel = loaded.amountLabel != null ? loaded.amountLabel : new LabelPosition(193, 5);
-                    this.cardBalanceLabel = loaded.cardBalanceLabel != null ? loaded.cardBalanceLabel : new LabelPosition(72, 65);
-                    this.titleLabel = loaded.titleLabel != null ? loaded.titleLabel : new LabelPosition(27, 88);
-                    
-                    // Button positions
-                    this.amountField = loaded.amountField != null ? loaded.amountField : new ButtonPosition(5, 202, 80, 20);
-                    this.sourceCurrencyButton = loaded.sourceCurrencyButton != null ? loaded.sourceCurrencyButton : new ButtonPosition(98, 202, 35, 20);
-                    this.targetCurrencyButton = loaded.targetCurrencyButton != null ? loaded.targetCurrencyButton : new ButtonPosition(148, 202, 35, 20);
-                    this.depositButton = loaded.depositButton != null ? loaded.depositButton : new ButtonPosition(190, 108, 50, 20);
-                    this.withdrawButton = loaded.withdrawButton != null ? loaded.withdrawButton : new ButtonPosition(190, 132, 50, 20);
-                    this.detectMoneyButton = loaded.detectMoneyButton != null ? loaded.detectMoneyButton : new ButtonPosition(190, 157, 50, 20);
-                    
-                    // Arrow position
-                    this.conversionArrow = loaded.conversionArrow != null ? loaded.conversionArrow : new LabelPosition(207, 137);
-                    
-                    // Grid positions
-                    this.denominationGrid = loaded.denominationGrid != null ? loaded.denominationGrid : new GridPosition(5, 39);
-                    this.playerInventory = loaded.playerInventory != null ? loaded.playerInventory : new GridPosition(6, 108);
-                    this.cardSlot = loaded.cardSlot != null ? loaded.cardSlot : new GridPosition(86, 54);
-                    
-                    // Colors - just copy loaded values (GSON will use 0 if missing)
-                    this.exchangeRateLabelColor = loaded.exchangeRateLabelColor;
-                    this.gridTotalLabelColor = loaded.gridTotalLabelColor;
-                    this.amountLabelColor = loaded.amountLabelColor;
-                    this.cardBalanceLabelColor = loaded.cardBalanceLabelColor;
-                    this.titleLabelColor = loaded.titleLabelColor;
-                    
-                    // Show flags - just copy loaded values (GSON will use false if missing)
-                    this.showExchangeRateLabel = loaded.showExchangeRateLabel;
-                    this.showGridTotalLabel = loaded.showGridTotalLabel;
-                    this.showAmountLabel = loaded.showAmountLabel;
-                    this.showCardBalanceLabel = loaded.showCardBalanceLabel;
-                    this.showTitleLabel = loaded.showTitleLabel;
-                    
-                    // Keep the loaded version (no auto-update)
-                    this.configVersion = loaded.configVersion != null ? loaded.configVersion : CONFIG_VERSION;
-                    
-                    System.out.println("Enhanced ATM: GUI configuration loaded successfully (version: " + this.configVersion + ")");
-                } else {
-                    System.err.println("Enhanced ATM: Failed to parse configuration file - using defaults");
-                }
-            } catch (IOException e) {
-                System.err.println("Enhanced ATM: Failed to load GUI configuration: " + e.getMessage());
-                e.printStackTrace();
-            }
-        } catch (Exception e) {
-            System.err.println("Enhanced ATM: Error loading configuration: " + e.getMessage());
-            e.printStackTrace();
+        ButtonPosition[] buttons = new ButtonPosition[BUTTON_NAMES.length];
+        for (int i = 0; i < buttons.length; i++) {
+            JsonObject button = readObject(json, BUTTON_NAMES[i]);
+            ButtonPosition fallback = DEFAULT_BUTTONS[i];
+            buttons[i] = button == null ? fallback : new ButtonPosition(
+                readInt(button, "offsetX", fallback.offsetX), readInt(button, "offsetY", fallback.offsetY),
+                readInt(button, "width", fallback.width), readInt(button, "height", fallback.height));
+        }
+        
+        GridPosition[] grids = new GridPosition[GRID_NAMES.length];
+        for (int i = 0; i < grids.length; i++) {
+            JsonObject grid = readObject(json, GRID_NAMES[i]);
+            GridPosition fallback = DEFAULT_GRIDS[i];
+            grids[i] = grid == null ? fallback : new GridPosition(
+                readInt(grid, "offsetX", fallback.offsetX), readInt(grid, "offsetY", fallback.offsetY));
+        }
+        
+        int[] colors = new int[COLOR_NAMES.length];
+        for (int i = 0; i < colors.length; i++) {
+            colors[i] = readInt(json, COLOR_NAMES[i], DEFAULT_COLORS[i]);
+        }
+        
+        boolean[] flags = new boolean[FLAG_NAMES.length];
+        for (int i = 0; i < flags.length; i++) {
+            JsonElement flag = json.get(FLAG_NAMES[i]);
+            flags[i] = flag != null && flag.isJsonPrimitive() && flag.getAsJsonPrimitive().isBoolean()
+                ? flag.getAsBoolean() : DEFAULT_FLAGS[i];
         }
+        
+        JsonElement version = json.get("configVersion");
+        String configVersion = version != null && version.isJsonPrimitive() ? version.getAsString() : CONFIG_VERSION;
+        
+        return new ATMGuiConfig(configVersion, labels, buttons, readLabel(json, "conversionArrow", DEFAULT_ARROW),
+            grids, colors, flags);
+    }
+    
+    private static LabelPosition readLabel(JsonObject json, String name, LabelPosition fallback) {
+        JsonObject label = readObject(json, name);
+        return label == null ? fallback : new LabelPosition(
+            readInt(label, "offsetY", fallback.offsetY), readInt(label, "offsetX", fallback.offsetX));
+    }
+    
+    private static JsonObject readObject(JsonObject json, String name) {
+        JsonElement element = json.get(name);
+        return element != null && element.isJsonObject() ? element.getAsJsonObject() : null;
+    }
+    
+    private static int readInt(JsonObject json, String name, int fallback) {
+        JsonElement element = json.get(name);
+        return element != null && element.isJsonPrimitive() && element.getAsJsonPrimitive().isNumber()
+            ? element.getAsInt() : fallback;
     }
     
     /**
-     * Save current configuration to file - simple version
+     * Save this configuration to file - simple version
+     * Does not modify the snapshot, the current version is written into the file only
      */
     public void saveConfig() {
         File configFile = getConfigFile();
         
         try {
-            // Ensure directory exists
-            File parentDir = configFile.getParentFile();
-            if (!parentDir.exists()) {
-                boolean created = parentDir.mkdirs();
-                System.out.println("Enhanced ATM: Config directory created: " + created + " at " + parentDir.getAbsolutePath());
-            }
-            
-            // Ensure the configVersion is always set to current version before saving
-            this.configVersion = CONFIG_VERSION;
+            // Always write the current version
+            JsonObject json = GSON.toJsonTree(this).getAsJsonObject();
+            json.addProperty("configVersion", CONFIG_VERSION);
             
             // Write configuration directly to file
             try (FileWriter writer = new FileWriter(configFile)) {
-                GSON.toJson(this, writer);
+                GSON.toJson(json, writer);
                 writer.flush();
             }
             
             System.out.println("Enhanced ATM: GUI configuration saved successfully to: " + configFile.getAbsolutePath());
-            System.out.println("Enhanced ATM: Configuration version saved: " + this.configVersion);
-            
+            System.out.println("Enhanced ATM: Configuration version saved: " + CONFIG_VERSION);
+        
         } catch (IOException e) {
             System.err.println("Enhanced ATM: Failed to save GUI configuration: " + e.getMessage());
             e.printStackTrace();
@@ -316,9 +437,9 @@ public class ATMGuiConfig {
     }
     
     /**
-     * Get the configuration file
+     * Directory holding the GUI configuration file
      */
-    private File getConfigFile() {
+    public static File getConfigDirectory() {
         // Create Enhanced ATM config directory in server config folder
         File configDir = FMLPaths.CONFIGDIR.get().toFile();
         File enhancedAtmDir = new File(configDir, "enhancedatm");
@@ -329,19 +450,22 @@ public class ATMGuiConfig {
             System.out.println("Enhanced ATM: Created config directory: " + enhancedAtmDir.getAbsolutePath());
         }
         
-        return new File(enhancedAtmDir, CONFIG_FILE_NAME);
+        return enhancedAtmDir;
+    }
+    
+    /**
+     * Get the configuration file
+     */
+    public static File getConfigFile() {
+        return new File(getConfigDirectory(), CONFIG_FILE_NAME);
     }
     
     /**
      * Inner class to represent label positions
      */
-    public static class LabelPosition {
-        public int offsetY;
-        public int offsetX;
-        
-        public LabelPosition() {
-            this(0, 0);
-        }
+    public static final class LabelPosition {
+        public final int offsetY;
+        public final int offsetX;
         
         public LabelPosition(int offsetY, int offsetX) {
             this.offsetY = offsetY;
@@ -366,15 +490,11 @@ public class ATMGuiConfig {
     /**
      * Inner class to represent button positions and sizes
      */
-    public static class ButtonPosition {
-        public int offsetX;
-        public int offsetY;
-        public int width;
-        public int height;
-        
-        public ButtonPosition() {
-            this(0, 0, 100, 20);
-        }
+    public static final class ButtonPosition {
+        public final int offsetX;
+        public final int offsetY;
+        public final int width;
+        public final int height;
         
         public ButtonPosition(int offsetX, int offsetY, int width, int height) {
             this.offsetX = offsetX;
@@ -401,13 +521,9 @@ public class ATMGuiConfig {
     /**
      * Inner class to represent grid positions (for inventory grids)
      */
-    public static class GridPosition {
-        public int offsetX;
-        public int offsetY;
-        
-        public GridPosition() {
-            this(0, 0);
-        }
+    public static final class GridPosition {
+        public final int offsetX;
+        public final int offsetY;
         
         public GridPosition(int offsetX, int offsetY) {
             this.offsetX = offsetX;
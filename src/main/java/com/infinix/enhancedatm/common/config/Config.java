@@ -14,6 +14,12 @@ public class Config {
     public static final ForgeConfigSpec.BooleanValue ENABLE_BANK_PERMISSION_SYSTEM;
     public static final ForgeConfigSpec.IntValue BANK_PERMISSION_RANGE;
     
+    // GUI configuration file
+    public static final ForgeConfigSpec.BooleanValue WATCH_GUI_CONFIG;
+    
+    // Debug configuration
+    public static final ForgeConfigSpec.BooleanValue SHOW_ALLOCATION_OVERLAY;
+    
     static {
         BUILDER.push("Bank Permission System");
         BUILDER.comment("Configuration for the Bank Permission System that controls ATM access");
@@ -28,6 +34,22 @@ public class Config {
         
         BUILDER.pop();
         
+        BUILDER.push("GUI Config");
+        
+        WATCH_GUI_CONFIG = BUILDER
+            .comment("Reload enhancedatm/gui_config.json automatically when it is edited (server only)")
+            .define("watch_gui_config", false);
+        
+        BUILDER.pop();
+        
+        BUILDER.push("Debug");
+        
+        SHOW_ALLOCATION_OVERLAY = BUILDER
+            .comment("Show how many bytes the ATM screen allocates per frame (client only)")
+            .define("show_allocation_overlay", false);
+        
+        BUILDER.pop();
+        
         SPEC = BUILDER.build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.infinix.enhancedatm.common.config;
+
+import net.minecraftforge.fml.loading.FMLPaths;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Client-side disk cache of GUI configurations received from servers, keyed by content hash
+ * Lives under config/enhancedatm/cache, only the most recently used entries are kept
+ */
+public final class GuiConfigCache {
+    
+    private static final int MAX_ENTRIES = 16;
+    
+    private GuiConfigCache() {
+    }
+    
+    /**
+     * Get the cached encoding with the given hash, or null on a miss or a corrupt entry
+     */
+    public static byte[] load(long hash) {
+        File file = getFile(hash);
+        if (!file.isFile()) return null;
+        
+        try {
+            byte[] data = Files.readAllBytes(file.toPath());
+            if (GuiConfigCodec.hash(data) != hash) {
+                System.err.println("Enhanced ATM: Discarding corrupt cached GUI configuration " + file.getName());
+                Files.deleteIfExists(file.toPath());
+                return null;
+            }
+            
+            // Mark as recently used so pruning keeps it
+            file.setLastModified(System.currentTimeMillis());
+            return data;
+        } catch (IOException e) {
+            System.err.println("Enhanced ATM: Failed to read cached GUI configuration: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Remember an encoding received from a server
+     */
+    public static void store(long hash, byte[] data) {
+        File file = getFile(hash);
+        try {
+            Files.write(file.toPath(), data);
+            prune(file.getParentFile());
+        } catch (IOException e) {
+            System.err.println("Enhanced ATM: Failed to cache GUI configuration: " + e.getMessage());
+        }
+    }
+    
+    private static void prune(File dir) {
+        File[] entries = dir.listFiles((d, name) -> name.startsWith("gui_") && name.endsWith(".bin"));
+        if (entries == null || entries.length <= MAX_ENTRIES) return;
+        
+        Arrays.sort(entries, Comparator.comparingLong(File::lastModified));
+        for (int i = 0; i < entries.length - MAX_ENTRIES; i++) {
+            entries[i].delete();
+        }
+    }
+    
+    private static File getFile(long hash) {
+        File cacheDir = new File(new File(FMLPaths.CONFIGDIR.get().toFile(), "enhancedatm"), "cache");
+        if (!cacheDir.exists()) {
+            cacheDir.mkdirs();
+        }
+        return new File(cacheDir, "gui_" + String.format("%016x", hash) + ".bin");
+    }
+}
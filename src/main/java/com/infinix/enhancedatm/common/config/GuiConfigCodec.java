@@ -0,0 +1,248 @@
+package com.infinix.enhancedatm.common.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Compact binary form of the GUI configuration and its 64-bit content hash
+ * The server sends only the hash at login, clients look the payload up in their disk cache
+ * and only request these bytes on a miss
+ */
+public final class GuiConfigCodec {
+    
+    private static final int FORMAT = 1;
+    
+    // Index of each setting in the flat field vector, also used to address fields in delta updates
+    public static final int LABELS = 0;            // 5 labels, offsetY and offsetX each
+    public static final int AMOUNT_FIELD = 10;     // Buttons: offsetX, offsetY, width, height
+    public static final int SOURCE_BUTTON = 14;
+    public static final int TARGET_BUTTON = 18;
+    public static final int DEPOSIT_BUTTON = 22;
+    public static final int WITHDRAW_BUTTON = 26;
+    public static final int DETECT_BUTTON = 30;
+    public static final int BUTTON_FIELDS = 4;
+    public static final int CONVERSION_ARROW = 34;
+    public static final int DENOMINATION_GRID = 36; // Grids: offsetX, offsetY
+    public static final int PLAYER_INVENTORY = 38;
+    public static final int CARD_SLOT = 40;
+    public static final int COLORS = 42;           // 5 label colors
+    public static final int FLAGS = 47;            // 5 show flags, 0 or 1
+    public static final int FIELD_COUNT = 52;
+    
+    /**
+     * Changed-field mask covering every field
+     */
+    public static final long ALL_FIELDS = (1L << FIELD_COUNT) - 1;
+    
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    
+    // Encoding of the current configuration, redone only when its revision changes
+    private static int encodedRevision = -1;
+    private static byte[] encodedData;
+    private static long encodedHash;
+    
+    private GuiConfigCodec() {
+    }
+    
+    /**
+     * Encoded bytes of the current configuration
+     */
+    public static synchronized byte[] currentData() {
+        refresh();
+        return encodedData;
+    }
+    
+    /**
+     * Content hash of the current configuration
+     */
+    public static synchronized long currentHash() {
+        refresh();
+        return encodedHash;
+    }
+    
+    private static void refresh() {
+        ATMGuiConfig config = ATMGuiConfig.getInstance();
+        int revision = ATMGuiConfig.getRevision();
+        if (encodedData == null || revision != encodedRevision) {
+            encodedData = encode(config);
+            encodedHash = hash(encodedData);
+            encodedRevision = revision;
+        }
+    }
+    
+    /**
+     * Fields of the current configuration as a flat vector
+     */
+    public static int[] currentFields() {
+        return flatten(ATMGuiConfig.getInstance());
+    }
+    
+    public static byte[] encode(ATMGuiConfig config) {
+        int[] fields = flatten(config);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT);
+            for (int i = 0; i < FLAGS; i++) {
+                out.writeInt(fields[i]);
+            }
+            
+            int flags = 0;
+            for (int i = FLAGS; i < FIELD_COUNT; i++) {
+                flags |= fields[i] << (i - FLAGS);
+            }
+            out.writeByte(flags);
+        } catch (IOException e) {
+            // Writing to memory does not fail
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    /**
+     * Decode a configuration, or null when the bytes are not a valid encoding
+     */
+    public static ATMGuiConfig decode(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (in.readUnsignedByte() != FORMAT) return null;
+            
+            int[] fields = new int[FIELD_COUNT];
+            for (int i = 0; i < FLAGS; i++) {
+                fields[i] = in.readInt();
+            }
+            
+            int flags = in.readUnsignedByte();
+            for (int i = FLAGS; i < FIELD_COUNT; i++) {
+                fields[i] = (flags >> (i - FLAGS)) & 1;
+            }
+            return unflatten(fields);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Indices of the fields that differ between two field vectors
+     */
+    public static int[] diff(int[] before, int[] after) {
+        int[] changed = new int[FIELD_COUNT];
+        int count = 0;
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            if (before[i] != after[i]) {
+                changed[count++] = i;
+            }
+        }
+        return Arrays.copyOf(changed, count);
+    }
+    
+    /**
+     * Changed-field mask bits for a range of fields
+     */
+    public static long mask(int start, int count) {
+        return ((1L << count) - 1) << start;
+    }
+    
+    public static int[] flatten(ATMGuiConfig config) {
+        int[] fields = new int[FIELD_COUNT];
+        putLabel(fields, LABELS, config.exchangeRateLabel);
+        putLabel(fields, LABELS + 2, config.gridTotalLabel);
+        putLabel(fields, LABELS + 4, config.amountLabel);
+        putLabel(fields, LABELS + 6, config.cardBalanceLabel);
+        putLabel(fields, LABELS + 8, config.titleLabel);
+        
+        putButton(fields, AMOUNT_FIELD, config.amountField);
+        putButton(fields, SOURCE_BUTTON, config.sourceCurrencyButton);
+        putButton(fields, TARGET_BUTTON, config.targetCurrencyButton);
+        putButton(fields, DEPOSIT_BUTTON, config.depositButton);
+        putButton(fields, WITHDRAW_BUTTON, config.withdrawButton);
+        putButton(fields, DETECT_BUTTON, config.detectMoneyButton);
+        
+        putLabel(fields, CONVERSION_ARROW, config.conversionArrow);
+        
+        putGrid(fields, DENOMINATION_GRID, config.denominationGrid);
+        putGrid(fields, PLAYER_INVENTORY, config.playerInventory);
+        putGrid(fields, CARD_SLOT, config.cardSlot);
+        
+        fields[COLORS] = config.exchangeRateLabelColor;
+        fields[COLORS + 1] = config.gridTotalLabelColor;
+        fields[COLORS + 2] = config.amountLabelColor;
+        fields[COLORS + 3] = config.cardBalanceLabelColor;
+        fields[COLORS + 4] = config.titleLabelColor;
+        
+        fields[FLAGS] = config.showExchangeRateLabel ? 1 : 0;
+        fields[FLAGS + 1] = config.showGridTotalLabel ? 1 : 0;
+        fields[FLAGS + 2] = config.showAmountLabel ? 1 : 0;
+        fields[FLAGS + 3] = config.showCardBalanceLabel ? 1 : 0;
+        fields[FLAGS + 4] = config.showTitleLabel ? 1 : 0;
+        return fields;
+    }
+    
+    public static ATMGuiConfig unflatten(int[] fields) {
+        ATMGuiConfig.LabelPosition[] labels = new ATMGuiConfig.LabelPosition[5];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = label(fields, LABELS + i * 2);
+        }
+        
+        ATMGuiConfig.ButtonPosition[] buttons = new ATMGuiConfig.ButtonPosition[6];
+        for (int i = 0; i < buttons.length; i++) {
+            buttons[i] = button(fields, AMOUNT_FIELD + i * BUTTON_FIELDS);
+        }
+        
+        ATMGuiConfig.GridPosition[] grids = {
+            grid(fields, DENOMINATION_GRID), grid(fields, PLAYER_INVENTORY), grid(fields, CARD_SLOT)
+        };
+        
+        int[] colors = Arrays.copyOfRange(fields, COLORS, FLAGS);
+        
+        boolean[] flags = new boolean[FIELD_COUNT - FLAGS];
+        for (int i = 0; i < flags.length; i++) {
+            flags[i] = fields[FLAGS + i] != 0;
+        }
+        return new ATMGuiConfig(labels, buttons, label(fields, CONVERSION_ARROW), grids, colors, flags);
+    }
+    
+    /**
+     * 64-bit FNV-1a hash of an encoded configuration
+     */
+    public static long hash(byte[] data) {
+        long hash = FNV_OFFSET;
+        for (byte b : data) {
+            hash ^= b & 0xFF;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+    
+    private static void putLabel(int[] fields, int index, ATMGuiConfig.LabelPosition label) {
+        fields[index] = label.offsetY;
+        fields[index + 1] = label.offsetX;
+    }
+    
+    private static ATMGuiConfig.LabelPosition label(int[] fields, int index) {
+        return new ATMGuiConfig.LabelPosition(fields[index], fields[index + 1]);
+    }
+    
+    private static void putButton(int[] fields, int index, ATMGuiConfig.ButtonPosition button) {
+        fields[index] = button.offsetX;
+        fields[index + 1] = button.offsetY;
+        fields[index + 2] = button.width;
+        fields[index + 3] = button.height;
+    }
+    
+    private static ATMGuiConfig.ButtonPosition button(int[] fields, int index) {
+        return new ATMGuiConfig.ButtonPosition(fields[index], fields[index + 1], fields[index + 2], fields[index + 3]);
+    }
+    
+    private static void putGrid(int[] fields, int index, ATMGuiConfig.GridPosition grid) {
+        fields[index] = grid.offsetX;
+        fields[index + 1] = grid.offsetY;
+    }
+    
+    private static ATMGuiConfig.GridPosition grid(int[] fields, int index) {
+        return new ATMGuiConfig.GridPosition(fields[index], fields[index + 1]);
+    }
+}
@@ -0,0 +1,106 @@
+package com.infinix.enhancedatm.common.config;
+
+import com.infinix.enhancedatm.common.network.packets.GuiConfigDeltaPacket;
+import net.minecraft.server.MinecraftServer;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * Watches config/enhancedatm/ and hot reloads the GUI configuration when its file is edited
+ * The file is read on the config loader thread, the server thread only publishes the new snapshot
+ * and broadcasts the changed fields to connected players
+ */
+public final class GuiConfigWatcher {
+    
+    // Editors often save in several steps, wait for the file to settle before reading it
+    private static final long SETTLE_MILLIS = 500L;
+    
+    private static WatchService watchService;
+    private static Thread thread;
+    
+    private GuiConfigWatcher() {
+    }
+    
+    public static synchronized void start(MinecraftServer server) {
+        if (thread != null) return;
+        
+        Path dir = ATMGuiConfig.getConfigDirectory().toPath();
+        String fileName = ATMGuiConfig.getConfigFile().getName();
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            System.err.println("Enhanced ATM: Could not watch GUI configuration directory: " + e.getMessage());
+            watchService = null;
+            return;
+        }
+        
+        WatchService service = watchService;
+        thread = new Thread(() -> watch(service, fileName, server), "Enhanced ATM config watcher");
+        thread.setDaemon(true);
+        thread.start();
+        System.out.println("Enhanced ATM: Watching " + dir + " for GUI configuration changes");
+    }
+    
+    public static synchronized void stop() {
+        if (thread == null) return;
+        
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            // Closing only wakes the watcher thread up
+        }
+        thread.interrupt();
+        thread = null;
+        watchService = null;
+    }
+    
+    private static void watch(WatchService service, String fileName, MinecraftServer server) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(String.valueOf(event.context()))) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+                if (!changed) continue;
+                
+                // Drop the events of the remaining writes
+                Thread.sleep(SETTLE_MILLIS);
+                while ((key = service.poll()) != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+                
+                reload(server);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+    
+    private static void reload(MinecraftServer server) {
+        ATMGuiConfig.loadAsync().thenAcceptAsync(loaded -> {
+            int[] baseFields = GuiConfigCodec.currentFields();
+            long baseHash = GuiConfigCodec.currentHash();
+            
+            ATMGuiConfig.publish(loaded);
+            GuiConfigDeltaPacket.broadcastSince(baseFields, baseHash);
+            System.out.println("Enhanced ATM: GUI configuration file changed, reloaded");
+        }, server).exceptionally(e -> {
+            // A half-written or broken file keeps the current configuration
+            System.err.println("Enhanced ATM: Failed to hot reload GUI configuration: " + e.getMessage());
+            return null;
+        });
+    }
+}
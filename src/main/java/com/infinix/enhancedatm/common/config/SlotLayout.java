@@ -0,0 +1,140 @@
+package com.infinix.enhancedatm.common.config;
+
+import net.minecraft.world.inventory.AbstractContainerMenu;
+import net.minecraft.world.inventory.Slot;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+
+/**
+ * Immutable slot positions of the ATM menu, one x/y pair per slot index
+ * Precomputed whenever the GUI configuration is loaded or synced, so building the menu only
+ * copies coordinates and a changed layout can be pushed into open slots without field lookups
+ */
+public final class SlotLayout {
+    
+    // Slot indices of the ATM menu
+    public static final int CARD_SLOT = 0;
+    public static final int GRID_START = 1;
+    public static final int GRID_SIZE = 9;
+    public static final int INVENTORY_START = GRID_START + GRID_SIZE;
+    public static final int HOTBAR_START = INVENTORY_START + 27;
+    public static final int SLOT_COUNT = HOTBAR_START + 9;
+    
+    private static final int SLOT_SIZE = 18;
+    private static final int HOTBAR_OFFSET = 58; // 58px below inventory
+    
+    // Slot.x and Slot.y are final, resolved once into setters for moving open slots
+    private static final MethodHandle setSlotX = resolveSetter("x", "field_75223_e", "xPos");
+    private static final MethodHandle setSlotY = resolveSetter("y", "field_75221_f", "yPos");
+    
+    private static volatile SlotLayout current;
+    
+    // x at 2 * index, y at 2 * index + 1
+    private final int[] positions;
+    
+    private SlotLayout(int[] positions) {
+        this.positions = positions;
+    }
+    
+    /**
+     * Layout of the current GUI configuration
+     */
+    public static SlotLayout get() {
+        SlotLayout layout = current;
+        if (layout == null) {
+            layout = of(ATMGuiConfig.getInstance());
+            current = layout;
+        }
+        return layout;
+    }
+    
+    /**
+     * Recompute the layout after the configuration was loaded or synced
+     */
+    public static void rebuild(ATMGuiConfig config) {
+        current = of(config);
+    }
+    
+    private static SlotLayout of(ATMGuiConfig config) {
+        int[] positions = new int[SLOT_COUNT * 2];
+        
+        put(positions, CARD_SLOT, config.cardSlot.offsetX, config.cardSlot.offsetY);
+        
+        // Denomination grid (3x3)
+        for (int i = 0; i < GRID_SIZE; i++) {
+            put(positions, GRID_START + i,
+                config.denominationGrid.offsetX + (i % 3) * SLOT_SIZE,
+                config.denominationGrid.offsetY + (i / 3) * SLOT_SIZE);
+        }
+        
+        // Player inventory (3x9) and hotbar
+        int invStartX = config.playerInventory.offsetX;
+        int invStartY = config.playerInventory.offsetY;
+        for (int i = 0; i < 27; i++) {
+            put(positions, INVENTORY_START + i, invStartX + (i % 9) * SLOT_SIZE, invStartY + (i / 9) * SLOT_SIZE);
+        }
+        for (int i = 0; i < 9; i++) {
+            put(positions, HOTBAR_START + i, invStartX + i * SLOT_SIZE, invStartY + HOTBAR_OFFSET);
+        }
+        
+        return new SlotLayout(positions);
+    }
+    
+    private static void put(int[] positions, int index, int x, int y) {
+        positions[index * 2] = x;
+        positions[index * 2 + 1] = y;
+    }
+    
+    public int getX(int index) {
+        return positions[index * 2];
+    }
+    
+    public int getY(int index) {
+        return positions[index * 2 + 1];
+    }
+    
+    /**
+     * Move the slots of an open ATM menu to this layout, slots already in place are left alone
+     */
+    public void applyTo(AbstractContainerMenu menu) {
+        if (setSlotX == null || setSlotY == null) {
+            System.err.println("Enhanced ATM: Slot position setters not available, skipping slot update");
+            return;
+        }
+        
+        int count = Math.min(SLOT_COUNT, menu.slots.size());
+        for (int i = 0; i < count; i++) {
+            Slot slot = menu.slots.get(i);
+            try {
+                if (slot.x != getX(i)) {
+                    setSlotX.invokeExact(slot, getX(i));
+                }
+                if (slot.y != getY(i)) {
+                    setSlotY.invokeExact(slot, getY(i));
+                }
+            } catch (Throwable e) {
+                System.err.println("Enhanced ATM: Failed to update slot position: " + e.getMessage());
+                return;
+            }
+        }
+    }
+    
+    private static MethodHandle resolveSetter(String... names) {
+        for (String name : names) {
+            try {
+                Field field = Slot.class.getDeclaredField(name);
+                field.setAccessible(true);
+                return MethodHandles.lookup().unreflectSetter(field);
+            } catch (NoSuchFieldException e) {
+                // Try next name
+            } catch (Throwable e) {
+                System.err.println("Enhanced ATM: Could not resolve Slot." + name + ": " + e.getMessage());
+                return null;
+            }
+        }
+        System.err.println("Enhanced ATM: Could not find Slot position field " + names[0]);
+        return null;
+    }
+}
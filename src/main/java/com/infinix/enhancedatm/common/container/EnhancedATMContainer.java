@@ -1,6 +1,10 @@
 package com.infinix.enhancedatm.common.container;
 
 import com.infinix.enhancedatm.EnhancedATMMod;
+import com.infinix.enhancedatm.common.config.SlotLayout;
+import com.infinix.enhancedatm.common.money.CurrencyId;
+import com.infinix.enhancedatm.common.money.DenominationRegistry;
+import com.infinix.enhancedatm.common.money.Money;
 import com.infinix.enhancedatm.common.utils.BubusteinMoneyIntegration;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.world.Container;
@@ -8,7 +12,9 @@ import net.minecraft.world.SimpleContainer;
 import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.AbstractContainerMenu;
+import net.minecraft.world.inventory.ContainerData;
 import net.minecraft.world.inventory.ContainerLevelAccess;
+import net.minecraft.world.inventory.SimpleContainerData;
 import net.minecraft.world.inventory.Slot;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.core.BlockPos;
@@ -23,6 +29,23 @@ public class EnhancedATMContainer extends AbstractContainerMenu {
     private final BlockPos atmPos;
     private final Container cardSlot;
     private final Container denominationSlots;
+    private final GridState gridState;
+    
+    // Cleared by the AtmSessionManager when the ATM, its permission or the player's reach goes away
+    private boolean valid = true;
+    
+    // Values computed on the server and synced as data slots, vanilla sends data slots as 16-bit values
+    // so each amount in minor units is split over four slots, currencies are stored as ordinal + 1 (0 = none)
+    private static final int DATA_GRID_TOTAL = 0;
+    private static final int DATA_GRID_CURRENCY = 4;
+    private static final int DATA_CARD_BALANCE = 5;
+    private static final int DATA_CARD_CURRENCY = 9;
+    private static final int DATA_COUNT = 10;
+    
+    private final ContainerData syncedData = new SimpleContainerData(DATA_COUNT);
+    
+    // Card last valued on the server, the balance is only read again when the stack changes
+    private ItemStack lastValuedCard = ItemStack.EMPTY;
     
     // Client-side constructor
     public EnhancedATMContainer(int windowId, Inventory playerInventory, FriendlyByteBuf data) {
@@ -38,85 +61,57 @@ public class EnhancedATMContainer extends AbstractContainerMenu {
             levelAccess.evaluate((level, pos) -> pos).orElse(BlockPos.ZERO) : BlockPos.ZERO;
         
         // Create container for the credit card slot
-        this.cardSlot = new SimpleContainer(1);
+        SimpleContainer card = new SimpleContainer(1);
+        card.addListener(this::slotsChanged);
+        this.cardSlot = card;
         
         // Create container for denomination exchange slots (3x3 = 9 slots)
-        this.denominationSlots = new SimpleContainer(9);
+        // SimpleContainer does not tell the menu about changes on its own, the listener routes them to slotsChanged
+        SimpleContainer grid = new SimpleContainer(9);
+        grid.addListener(this::slotsChanged);
+        this.denominationSlots = grid;
+        this.gridState = new GridState(grid.getContainerSize());
+        
+        // Slot positions come from the layout precomputed when the GUI config was loaded or synced
+        SlotLayout layout = SlotLayout.get();
         
         // Add card slot with configurable position
-        int cardX = 124; // Default position
-        int cardY = 115; // Default position
-        try {
-            com.infinix.enhancedatm.common.config.ATMGuiConfig config = com.infinix.enhancedatm.common.config.ATMGuiConfig.getInstance();
-            cardX = config.cardSlot.offsetX;
-            cardY = config.cardSlot.offsetY;
-            System.out.println("Enhanced ATM: Using configured card slot position: (" + cardX + ", " + cardY + ")");
-        } catch (Exception e) {
-            System.out.println("Enhanced ATM: Failed to load config, using default card slot position: (" + cardX + ", " + cardY + ")");
-        }
-        this.addSlot(new CreditCardSlot(cardSlot, 0, cardX, cardY));
+        this.addSlot(new CreditCardSlot(cardSlot, 0, layout.getX(SlotLayout.CARD_SLOT), layout.getY(SlotLayout.CARD_SLOT)));
         
         // Add denomination exchange slots (3x3 grid)
-        addDenominationSlots();
+        addDenominationSlots(layout);
         
         // Add player inventory slots
-        addPlayerInventorySlots(playerInventory);
+        addPlayerInventorySlots(playerInventory, layout);
+        
+        // Grid total, grid currency, card balance and card currency for the screen
+        this.addDataSlots(syncedData);
     }
     
     /**
      * Add denomination exchange slots to the container (3x3 grid)
      */
-    private void addDenominationSlots() {
-        // Try to get configuration, fallback to default if not available
-        int startX = 30; // Default position
-        int startY = 97; // Default position
-        
-        try {
-            com.infinix.enhancedatm.common.config.ATMGuiConfig config = com.infinix.enhancedatm.common.config.ATMGuiConfig.getInstance();
-            startX = config.denominationGrid.offsetX;
-            startY = config.denominationGrid.offsetY;
-            System.out.println("Enhanced ATM: Using configured denomination grid position: (" + startX + ", " + startY + ")");
-        } catch (Exception e) {
-            System.out.println("Enhanced ATM: Failed to load config, using default denomination grid position: (" + startX + ", " + startY + ")");
-        }
-        
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
-                int slotIndex = row * 3 + col;
-                int x = startX + (col * 18);
-                int y = startY + (row * 18);
-                this.addSlot(new DenominationSlot(denominationSlots, slotIndex, x, y));
-            }
+    private void addDenominationSlots(SlotLayout layout) {
+        for (int i = 0; i < SlotLayout.GRID_SIZE; i++) {
+            int index = SlotLayout.GRID_START + i;
+            this.addSlot(new DenominationSlot(denominationSlots, gridState, i, layout.getX(index), layout.getY(index)));
         }
     }
     
     /**
      * Add player inventory and hotbar slots to the container
      */
-    private void addPlayerInventorySlots(Inventory playerInventory) {
-        // Try to get configuration, fallback to default if not available
-        int invStartX = 8;   // Default position
-        int invStartY = 166; // Default position
-        
-        try {
-            com.infinix.enhancedatm.common.config.ATMGuiConfig config = com.infinix.enhancedatm.common.config.ATMGuiConfig.getInstance();
-            invStartX = config.playerInventory.offsetX;
-            invStartY = config.playerInventory.offsetY;
-            System.out.println("Enhanced ATM: Using configured player inventory position: (" + invStartX + ", " + invStartY + ")");
-        } catch (Exception e) {
-            System.out.println("Enhanced ATM: Failed to load config, using default player inventory position: (" + invStartX + ", " + invStartY + ")");
-        }
-        
+    private void addPlayerInventorySlots(Inventory playerInventory, SlotLayout layout) {
         // Player inventory (3x9 = 27 slots)
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 9; col++) {
-                this.addSlot(new Slot(playerInventory, col + row * 9 + 9, invStartX + col * 18, invStartY + row * 18));
-            }
+        for (int i = 0; i < 27; i++) {
+            int index = SlotLayout.INVENTORY_START + i;
+            this.addSlot(new Slot(playerInventory, i + 9, layout.getX(index), layout.getY(index)));
         }
         
         // Player hotbar (9 slots)
-        for (int col = 0; col < 9; col++) {
-            this.addSlot(new Slot(playerInventory, col, invStartX + col * 18, invStartY + 58)); // 58px below inventory
+        for (int i = 0; i < 9; i++) {
+            int index = SlotLayout.HOTBAR_START + i;
+            this.addSlot(new Slot(playerInventory, i, layout.getX(index), layout.getY(index)));
         }
     }
     
@@ -168,13 +163,19 @@ public class EnhancedATMContainer extends AbstractContainerMenu {
     
     @Override
     public boolean stillValid(Player player) {
-        // Check if player is still near the ATM and ATM block is still present
-        return levelAccess.evaluate((level, pos) -> {
-            if (level.getBlockState(pos).getBlock().getClass().getSimpleName().equals("ATM")) {
-                return player.distanceToSqr((double)pos.getX() + 0.5D, (double)pos.getY() + 0.5D, (double)pos.getZ() + 0.5D) <= 64.0D;
-            }
-            return false;
-        }, true);
+        // ATM presence, permission and player reach are tracked by the AtmSessionManager
+        return valid;
+    }
+    
+    /**
+     * Mark this menu for closing on the player's next tick
+     */
+    public void invalidate() {
+        this.valid = false;
+    }
+    
+    public boolean isValid() {
+        return valid;
     }
     
     @Override
@@ -215,22 +216,78 @@ public class EnhancedATMContainer extends AbstractContainerMenu {
     }
     
     /**
-     * Get all denomination items from the denomination slots
+     * Get the container backing the 3x3 denomination grid
+     */
+    public Container getDenominationContainer() {
+        return denominationSlots;
+    }
+    
+    /**
+     * Live currency, denomination counts and total of the denomination grid
+     */
+    public GridState getGridState() {
+        return gridState;
+    }
+    
+    /**
+     * Grid total as computed by the server, or null while the grid is empty (client and server)
      */
-    public java.util.List<ItemStack> getDenominationItems() {
-        java.util.List<ItemStack> items = new java.util.ArrayList<>();
-        System.out.println("DEBUG: getDenominationItems - Container size: " + denominationSlots.getContainerSize());
+    public Money getSyncedGridTotal() {
+        CurrencyId currency = readCurrency(DATA_GRID_CURRENCY);
+        return currency != null ? Money.ofMinor(readLong(DATA_GRID_TOTAL), currency) : null;
+    }
+    
+    /**
+     * Balance of the card in the card slot as read by the server, or null while there is no card
+     */
+    public Money getSyncedCardBalance() {
+        CurrencyId currency = readCurrency(DATA_CARD_CURRENCY);
+        return currency != null ? Money.ofMinor(readLong(DATA_CARD_BALANCE), currency) : null;
+    }
+    
+    /**
+     * Re-value the grid and card into the data slots, unchanged values are not sent again
+     */
+    private void updateSyncedData() {
+        Money gridTotal = gridState.getTotal();
+        writeLong(DATA_GRID_TOTAL, gridTotal != null ? gridTotal.getMinorUnits() : 0L);
+        writeCurrency(DATA_GRID_CURRENCY, gridTotal != null ? gridTotal.getCurrency() : null);
         
-        for (int i = 0; i < denominationSlots.getContainerSize(); i++) {
-            ItemStack stack = denominationSlots.getItem(i);
-            System.out.println("DEBUG: Slot " + i + " contains: " + (stack.isEmpty() ? "EMPTY" : stack.getHoverName().getString() + " x" + stack.getCount()));
-            if (!stack.isEmpty()) {
-                items.add(stack.copy());
-            }
-        }
+        ItemStack card = cardSlot.getItem(0);
+        if (ItemStack.matches(card, lastValuedCard)) return;
+        lastValuedCard = card.copy();
         
-        System.out.println("DEBUG: Returning " + items.size() + " denomination items");
-        return items;
+        if (BubusteinMoneyIntegration.isCardItem(card)) {
+            Money balance = BubusteinMoneyIntegration.getCardMoney(card);
+            writeLong(DATA_CARD_BALANCE, balance.getMinorUnits());
+            writeCurrency(DATA_CARD_CURRENCY, balance.getCurrency());
+        } else {
+            writeLong(DATA_CARD_BALANCE, 0L);
+            writeCurrency(DATA_CARD_CURRENCY, null);
+        }
+    }
+    
+    private void writeLong(int index, long value) {
+        for (int i = 0; i < 4; i++) {
+            syncedData.set(index + i, (int) ((value >>> (16 * i)) & 0xFFFF));
+        }
+    }
+    
+    private long readLong(int index) {
+        long value = 0L;
+        for (int i = 0; i < 4; i++) {
+            value |= (long) (syncedData.get(index + i) & 0xFFFF) << (16 * i);
+        }
+        return value;
+    }
+    
+    private void writeCurrency(int index, CurrencyId currency) {
+        syncedData.set(index, currency != null ? currency.ordinal() + 1 : 0);
+    }
+    
+    private CurrencyId readCurrency(int index) {
+        int value = syncedData.get(index);
+        return value > 0 && value <= CurrencyId.count() ? CurrencyId.byOrdinal(value - 1) : null;
     }
     
     /**
@@ -240,7 +297,6 @@ public class EnhancedATMContainer extends AbstractContainerMenu {
         for (int i = 0; i < denominationSlots.getContainerSize(); i++) {
             denominationSlots.setItem(i, ItemStack.EMPTY);
         }
-        System.out.println("DEBUG: Cleared all denomination slots");
     }
     
     @Override
@@ -249,11 +305,24 @@ public class EnhancedATMContainer extends AbstractContainerMenu {
         
         // If the denomination slots container changed, notify client to update amount field
         if (container == this.denominationSlots) {
+            gridState.sync(denominationSlots);
+            
             // Trigger client-side update via the screen
             this.broadcastChanges();
+        } else if (container == this.cardSlot) {
+            this.broadcastChanges();
         }
     }
     
+    @Override
+    public void broadcastChanges() {
+        // Deposits and withdrawals rewrite the card in place, so the card is compared on every broadcast
+        if (levelAccess != ContainerLevelAccess.NULL) {
+            updateSyncedData();
+        }
+        super.broadcastChanges();
+    }
+    
     /**
      * Custom slot that only accepts credit cards from BubusteinMoney mod
      */
@@ -278,106 +347,25 @@ public class EnhancedATMContainer extends AbstractContainerMenu {
      * Custom slot that only accepts money items (coins and bills) from BubusteinMoney mod
      */
     public static class DenominationSlot extends Slot {
-        public DenominationSlot(Container container, int slot, int x, int y) {
+        private final GridState gridState;
+        
+        public DenominationSlot(Container container, GridState gridState, int slot, int x, int y) {
             super(container, slot, x, y);
-            System.out.println("DEBUG: Created DenominationSlot at position (" + x + ", " + y + ") with index " + slot);
+            this.gridState = gridState;
         }
         
         @Override
         public boolean mayPlace(ItemStack stack) {
             if (stack.isEmpty()) {
-                System.out.println("DEBUG: mayPlace called with empty stack");
                 return false;
             }
             
-            boolean isMoneyItem = BubusteinMoneyIntegration.isMoneyItem(stack.getItem());
-            System.out.println("DEBUG: mayPlace called with item: " + stack.getItem() + ", isMoneyItem: " + isMoneyItem);
-            
-            // Enhanced currency item detection for all bills and coins
-            String itemName = stack.getItem().toString().toLowerCase();
-            String registryName = stack.getItem().getDescriptionId().toLowerCase();
-            
-            boolean isCurrencyItem = 
-                // BubusteinMoney mod items
-                itemName.contains("bubusteinmoneymod") || registryName.contains("bubusteinmoneymod") ||
-                
-                // General money patterns
-                itemName.contains("coin") || itemName.contains("bill") || itemName.contains("note") ||
-                registryName.contains("coin") || registryName.contains("bill") || registryName.contains("note") ||
-                
-                // Currency names and codes
-                itemName.contains("euro") || itemName.contains("dollar") || itemName.contains("pound") || itemName.contains("yen") ||
-                itemName.contains("usd") || itemName.contains("eur") || itemName.contains("gbp") || itemName.contains("jpy") ||
-                registryName.contains("euro") || registryName.contains("dollar") || registryName.contains("pound") || registryName.contains("yen") ||
-                registryName.contains("usd") || registryName.contains("eur") || registryName.contains("gbp") || registryName.contains("jpy") ||
-                
-                // Coin-specific patterns (cents, centimes, centavos, pence, etc.)
-                itemName.contains("cent") || itemName.contains("centim") || itemName.contains("centav") || itemName.contains("pence") ||
-                registryName.contains("cent") || registryName.contains("centim") || registryName.contains("centav") || registryName.contains("pence") ||
-                
-            // Additional patterns (including Romanian denominations)
-            itemName.contains("bani") || itemName.contains("franc") || itemName.contains("peso") || itemName.contains("dinar") ||
-            registryName.contains("bani") || registryName.contains("franc") || registryName.contains("peso") || registryName.contains("dinar") ||
-            
-            // Romanian currency specific patterns
-            itemName.contains("lei") || itemName.contains("leu") || itemName.contains("douazeci") ||
-            registryName.contains("lei") || registryName.contains("leu") || registryName.contains("douazeci");            System.out.println("DEBUG: isCurrencyItem: " + isCurrencyItem + " for item: " + itemName);
-            
-            // First check if it's a valid money item
-            if (!isMoneyItem && !isCurrencyItem) {
-                return false;
-            }
-            
-            // Check if grid already has items and enforce single denomination rule
-            return checkSingleDenominationRule(stack);
-        }
-        
-        /**
-         * Check if the stack can be placed according to single denomination rule
-         */
-        private boolean checkSingleDenominationRule(ItemStack stackToPlace) {
-            // Get the currency of the item to place
-            String currencyToPlace = extractCurrencyFromItemName(stackToPlace.getItem().toString());
-            
-            // Check all denomination slots for existing items
-            for (int i = 0; i < container.getContainerSize(); i++) {
-                ItemStack existingStack = container.getItem(i);
-                if (!existingStack.isEmpty()) {
-                    String existingCurrency = extractCurrencyFromItemName(existingStack.getItem().toString());
-                    
-                    // If currencies don't match, deny placement
-                    if (!currencyToPlace.equals(existingCurrency)) {
-                        System.out.println("DEBUG: Blocking placement - existing currency: " + existingCurrency + 
-                                         ", new currency: " + currencyToPlace);
-                        return false;
-                    }
-                }
-            }
-            
-            return true; // Allow if grid is empty or same currency
-        }
-        
-        /**
-         * Extract currency from item name (similar to screen method)
-         */
-        private String extractCurrencyFromItemName(String itemName) {
-            String lowerName = itemName.toLowerCase();
-            
-            if (lowerName.contains("euro") || lowerName.contains("eur")) {
-                return "EUR";
-            } else if (lowerName.contains("dollar") || lowerName.contains("usd")) {
-                return "USD";
-            } else if (lowerName.contains("coin") || lowerName.contains("bill") || lowerName.contains("note")) {
-                // Default currency for generic money items
-                return "USD";
-            }
-            
-            return "UNKNOWN";
+            // Only known denominations, and only of the currency already in the grid (single denomination rule)
+            return gridState.accepts(DenominationRegistry.getCurrency(stack.getItem()));
         }
         
         @Override
         public void set(ItemStack stack) {
-            System.out.println("DEBUG: DenominationSlot.set called with: " + stack);
             super.set(stack);
             
             // Mark container as changed so client will be notified
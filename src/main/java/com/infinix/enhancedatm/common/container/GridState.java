@@ -0,0 +1,105 @@
+package com.infinix.enhancedatm.common.container;
+
+import com.infinix.enhancedatm.common.money.CurrencyId;
+import com.infinix.enhancedatm.common.money.DenominationRegistry;
+import com.infinix.enhancedatm.common.money.Money;
+import net.minecraft.world.Container;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Live summary of the ATM denomination grid: the currency it is locked to, the count of each
+ * denomination and the total in minor units
+ * Kept up to date from the grid's change notifications, so placement checks and grid totals
+ * never rescan the slots
+ */
+public class GridState {
+    
+    // Last seen contents per slot, so a change only re-values the slots that differ
+    private final Item[] items;
+    private final int[] counts;
+    
+    private final Map<Item, Integer> denominations = new LinkedHashMap<>();
+    private CurrencyId currency;
+    private long totalMinor;
+    
+    public GridState(int size) {
+        this.items = new Item[size];
+        this.counts = new int[size];
+    }
+    
+    /**
+     * Bring the state in line with the grid, touching only the slots that changed
+     */
+    public void sync(Container grid) {
+        boolean changed = false;
+        for (int i = 0; i < items.length && i < grid.getContainerSize(); i++) {
+            ItemStack stack = grid.getItem(i);
+            Item item = stack.isEmpty() ? null : stack.getItem();
+            int count = item != null ? stack.getCount() : 0;
+            if (item == items[i] && count == counts[i]) continue;
+            
+            if (items[i] != null) {
+                account(items[i], -counts[i]);
+            }
+            items[i] = item;
+            counts[i] = count;
+            if (item != null) {
+                account(item, count);
+            }
+            changed = true;
+        }
+        
+        if (changed && denominations.isEmpty()) {
+            currency = null;
+            totalMinor = 0L;
+        }
+    }
+    
+    private void account(Item item, int count) {
+        CurrencyId itemCurrency = DenominationRegistry.getCurrency(item);
+        if (itemCurrency == null) return;
+        
+        denominations.merge(item, count, (a, b) -> a + b == 0 ? null : a + b);
+        totalMinor += DenominationRegistry.getMinorUnits(item) * count;
+        if (count > 0) {
+            currency = itemCurrency;
+        }
+    }
+    
+    /**
+     * Whether a denomination of the given currency may be placed, the grid holds a single currency
+     */
+    public boolean accepts(CurrencyId itemCurrency) {
+        return itemCurrency != null && (currency == null || currency == itemCurrency);
+    }
+    
+    /**
+     * Currency the grid is locked to, or null while it is empty
+     */
+    public CurrencyId getCurrency() {
+        return currency;
+    }
+    
+    public boolean isEmpty() {
+        return denominations.isEmpty();
+    }
+    
+    /**
+     * Total value of the grid, or null while it is empty
+     */
+    public Money getTotal() {
+        return currency != null ? Money.ofMinor(totalMinor, currency) : null;
+    }
+    
+    /**
+     * Number of items of each denomination in the grid, in the order they were first placed
+     */
+    public Map<Item, Integer> getDenominations() {
+        return Collections.unmodifiableMap(denominations);
+    }
+}
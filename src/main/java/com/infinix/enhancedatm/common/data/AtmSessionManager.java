@@ -0,0 +1,191 @@
+package com.infinix.enhancedatm.common.data;
+
+import com.infinix.enhancedatm.common.container.EnhancedATMContainer;
+import com.infinix.enhancedatm.common.utils.AtmTypeRegistry;
+import com.infinix.enhancedatm.common.utils.BankPermissionChecker;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Server-side registry of open ATM menus, indexed by player and by ATM position
+ * Sessions are invalidated from block, chunk, permission and dimension events instead of each menu
+ * polling the world every tick, the menu then closes on the player's next tick
+ * Only touched from the server thread
+ */
+public class AtmSessionManager {
+    
+    // Same reach as vanilla container menus
+    private static final double MAX_DISTANCE_SQ = 64.0D;
+    
+    private static final Map<UUID, Session> BY_PLAYER = new HashMap<>();
+    private static final Map<ResourceKey<Level>, Map<Long, List<Session>>> BY_ATM = new HashMap<>();
+    
+    /**
+     * One player using one ATM
+     */
+    public static final class Session {
+        private final ServerPlayer player;
+        private final EnhancedATMContainer menu;
+        private final ResourceKey<Level> dimension;
+        private final BlockPos atmPos;
+        private final long openedAt;
+        
+        private Session(ServerPlayer player, EnhancedATMContainer menu, ResourceKey<Level> dimension, BlockPos atmPos, long openedAt) {
+            this.player = player;
+            this.menu = menu;
+            this.dimension = dimension;
+            this.atmPos = atmPos;
+            this.openedAt = openedAt;
+        }
+        
+        public ServerPlayer getPlayer() {
+            return player;
+        }
+        
+        public ResourceKey<Level> getDimension() {
+            return dimension;
+        }
+        
+        public BlockPos getAtmPos() {
+            return atmPos;
+        }
+        
+        public long getOpenedAt() {
+            return openedAt;
+        }
+        
+        public boolean isValid() {
+            return menu.isValid();
+        }
+    }
+    
+    /**
+     * Start tracking an ATM menu the player just opened
+     */
+    public static void open(ServerPlayer player, EnhancedATMContainer menu) {
+        close(player);
+        
+        BlockPos atmPos = menu.getATMPosition().immutable();
+        ResourceKey<Level> dimension = player.level().dimension();
+        Session session = new Session(player, menu, dimension, atmPos, player.level().getGameTime());
+        
+        BY_PLAYER.put(player.getUUID(), session);
+        BY_ATM.computeIfAbsent(dimension, k -> new HashMap<>())
+            .computeIfAbsent(atmPos.asLong(), k -> new ArrayList<>(1))
+            .add(session);
+    }
+    
+    /**
+     * Stop tracking the player's ATM menu (closed, logged out)
+     */
+    public static void close(ServerPlayer player) {
+        Session session = BY_PLAYER.remove(player.getUUID());
+        if (session == null) return;
+        
+        Map<Long, List<Session>> atms = BY_ATM.get(session.dimension);
+        if (atms == null) return;
+        
+        List<Session> atAtm = atms.get(session.atmPos.asLong());
+        if (atAtm != null && atAtm.remove(session) && atAtm.isEmpty()) {
+            atms.remove(session.atmPos.asLong());
+            if (atms.isEmpty()) {
+                BY_ATM.remove(session.dimension);
+            }
+        }
+    }
+    
+    /**
+     * Invalidate the session of a player that left the dimension of its ATM
+     */
+    public static void onDimensionChange(ServerPlayer player) {
+        Session session = BY_PLAYER.get(player.getUUID());
+        if (session != null && session.dimension != player.level().dimension()) {
+            invalidate(session, "changed dimension");
+        }
+    }
+    
+    /**
+     * Invalidate the sessions of an ATM position whose block is no longer an ATM
+     */
+    public static void onBlockChanged(ServerLevel level, BlockPos pos, BlockState newState) {
+        Map<Long, List<Session>> atms = BY_ATM.get(level.dimension());
+        if (atms == null) return;
+        
+        List<Session> atAtm = atms.get(pos.asLong());
+        if (atAtm != null && !AtmTypeRegistry.isAtm(newState.getBlock())) {
+            for (Session session : atAtm) {
+                invalidate(session, "ATM block removed");
+            }
+        }
+    }
+    
+    /**
+     * Invalidate the sessions of ATMs in a chunk that is unloading
+     */
+    public static void onChunkUnload(ServerLevel level, ChunkPos chunk) {
+        Map<Long, List<Session>> atms = BY_ATM.get(level.dimension());
+        if (atms == null) return;
+        
+        for (List<Session> atAtm : atms.values()) {
+            for (Session session : atAtm) {
+                if ((session.atmPos.getX() >> 4) == chunk.x && (session.atmPos.getZ() >> 4) == chunk.z) {
+                    invalidate(session, "chunk unloaded");
+                }
+            }
+        }
+    }
+    
+    /**
+     * Check the ATMs of a level against the permission system again, after a permission block or zone was removed
+     */
+    public static void recheckPermissions(ServerLevel level) {
+        Map<Long, List<Session>> atms = BY_ATM.get(level.dimension());
+        if (atms == null) return;
+        
+        for (List<Session> atAtm : atms.values()) {
+            if (atAtm.isEmpty() || BankPermissionChecker.isAtmPermitted(level, atAtm.get(0).atmPos)) continue;
+            
+            for (Session session : atAtm) {
+                invalidate(session, "bank permission removed");
+            }
+        }
+    }
+    
+    /**
+     * Invalidate sessions whose player walked out of reach of the ATM
+     * Players can only move by ticking, so this is the one check that has to be polled
+     */
+    public static void checkDistances() {
+        for (Session session : BY_PLAYER.values()) {
+            if (session.isValid() && session.player.distanceToSqr(
+                    session.atmPos.getX() + 0.5D, session.atmPos.getY() + 0.5D, session.atmPos.getZ() + 0.5D) > MAX_DISTANCE_SQ) {
+                invalidate(session, "moved out of range");
+            }
+        }
+    }
+    
+    private static void invalidate(Session session, String reason) {
+        if (!session.isValid()) return;
+        
+        session.menu.invalidate();
+        System.out.println("Enhanced ATM: Closing ATM session of " + session.player.getName().getString() + 
+            " at " + session.atmPos + " (" + reason + ")");
+    }
+    
+    public static Collection<Session> getSessions() {
+        return Collections.unmodifiableCollection(BY_PLAYER.values());
+    }
+}
@@ -0,0 +1,355 @@
+package com.infinix.enhancedatm.common.data;
+
+import com.infinix.enhancedatm.common.money.CurrencyId;
+import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.IntArrayTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.LongArrayTag;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.saveddata.SavedData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Persistent per-dimension index of Bank Permission Blocks and the radius each one covers
+ * Blocks are bucketed into 64x64 block columns, no block reaches further than one bucket, so a lookup
+ * only visits the buckets within the largest radius currently indexed and tests each entry's own radius
+ */
+public class BankPermissionIndex extends SavedData {
+    
+    private static final String DATA_NAME = "enhancedatm_bank_permissions";
+    
+    // 64 blocks per bucket side, the maximum permission range spans at most 3x3 buckets
+    private static final int BUCKET_SHIFT = 6;
+    
+    /**
+     * Largest radius a single block may cover
+     */
+    public static final int MAX_RADIUS = 1 << BUCKET_SHIFT;
+    
+    /**
+     * One indexed permission block
+     * A radius of 0 follows the configured default range, an empty whitelist allows every currency
+     */
+    public static final class Entry {
+        private final BlockPos pos;
+        private final int radius;
+        private final Set<CurrencyId> currencies;
+        
+        private Entry(BlockPos pos, int radius, Set<CurrencyId> currencies) {
+            this.pos = pos;
+            this.radius = radius;
+            this.currencies = currencies.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(EnumSet.copyOf(currencies));
+        }
+        
+        public BlockPos getPos() {
+            return pos;
+        }
+        
+        public int getRadius() {
+            return radius;
+        }
+        
+        public int getEffectiveRadius(int defaultRange) {
+            return radius > 0 ? radius : defaultRange;
+        }
+        
+        public Set<CurrencyId> getCurrencies() {
+            return currencies;
+        }
+        
+        public boolean allowsCurrency(CurrencyId currency) {
+            return currencies.isEmpty() || currencies.contains(currency);
+        }
+        
+        private boolean sameSettings(int otherRadius, Set<CurrencyId> otherCurrencies) {
+            return radius == otherRadius && currencies.equals(otherCurrencies);
+        }
+    }
+    
+    private final Map<Long, List<Entry>> buckets = new HashMap<>();
+    private int size = 0;
+    
+    // Number of entries per stored radius, index 0 counts blocks on the default range
+    private final int[] radiusCounts = new int[MAX_RADIUS + 1];
+    
+    // True once every permission block of the level is known to be in the index
+    private boolean complete = false;
+    
+    // Not saved, verdicts are cheap to recompute after a restart
+    private final PermissionVerdictCache verdicts = new PermissionVerdictCache();
+    
+    /**
+     * Get the index of a level, loading it from the world save on first use
+     */
+    public static BankPermissionIndex get(ServerLevel level) {
+        return level.getDataStorage().computeIfAbsent(BankPermissionIndex::load, () -> create(level), DATA_NAME);
+    }
+    
+    /**
+     * A level that has never ticked cannot hold unindexed blocks, older worlds may
+     */
+    private static BankPermissionIndex create(ServerLevel level) {
+        BankPermissionIndex index = new BankPermissionIndex();
+        index.complete = level.getGameTime() == 0L;
+        index.setDirty();
+        return index;
+    }
+    
+    public static BankPermissionIndex load(CompoundTag tag) {
+        BankPermissionIndex index = new BankPermissionIndex();
+        long[] positions = tag.getLongArray("positions");
+        // Saves from before per-block radii only hold positions
+        int[] radii = tag.getIntArray("radii");
+        ListTag whitelists = tag.getList("currencies", Tag.TAG_STRING);
+        
+        for (int i = 0; i < positions.length; i++) {
+            int radius = i < radii.length ? Math.max(0, Math.min(MAX_RADIUS, radii[i])) : 0;
+            Set<CurrencyId> currencies = EnumSet.noneOf(CurrencyId.class);
+            if (i < whitelists.size() && !whitelists.getString(i).isEmpty()) {
+                for (String code : whitelists.getString(i).split(",")) {
+                    CurrencyId currency = CurrencyId.fromCode(code);
+                    if (currency != null) {
+                        currencies.add(currency);
+                    }
+                }
+            }
+            index.insert(new Entry(BlockPos.of(positions[i]), radius, currencies));
+        }
+        index.complete = tag.getBoolean("complete");
+        return index;
+    }
+    
+    @Override
+    public CompoundTag save(CompoundTag tag) {
+        long[] positions = new long[size];
+        int[] radii = new int[size];
+        ListTag whitelists = new ListTag();
+        int i = 0;
+        for (List<Entry> bucket : buckets.values()) {
+            for (Entry entry : bucket) {
+                positions[i] = entry.pos.asLong();
+                radii[i] = entry.radius;
+                whitelists.add(StringTag.valueOf(entry.currencies.stream()
+                    .map(CurrencyId::getCode).collect(Collectors.joining(","))));
+                i++;
+            }
+        }
+        tag.put("positions", new LongArrayTag(positions));
+        tag.put("radii", new IntArrayTag(radii));
+        tag.put("currencies", whitelists);
+        tag.putBoolean("complete", complete);
+        return tag;
+    }
+    
+    /**
+     * Record a placed permission block on the default range
+     */
+    public void add(BlockPos pos) {
+        add(pos, 0, Collections.emptySet());
+    }
+    
+    /**
+     * Record a permission block, or update the radius and whitelist of an indexed one
+     */
+    public void add(BlockPos pos, int radius, Set<CurrencyId> currencies) {
+        radius = Math.max(0, Math.min(MAX_RADIUS, radius));
+        Entry existing = getEntry(pos);
+        if (existing != null) {
+            if (existing.sameSettings(radius, currencies)) {
+                return;
+            }
+            removeEntry(existing);
+        }
+        
+        Entry entry = new Entry(pos.immutable(), radius, currencies);
+        insert(entry);
+        verdicts.invalidateAround(pos, radius);
+        setDirty();
+    }
+    
+    /**
+     * Forget a removed permission block
+     */
+    public void remove(BlockPos pos) {
+        Entry entry = getEntry(pos);
+        if (entry != null) {
+            removeEntry(entry);
+            setDirty();
+        }
+    }
+    
+    /**
+     * Forget every indexed block inside one chunk, before that chunk is rescanned
+     */
+    public void removeInChunk(int chunkX, int chunkZ) {
+        List<Entry> bucket = buckets.get(bucketKey(chunkX << 4, chunkZ << 4));
+        if (bucket == null) return;
+        
+        List<Entry> inChunk = new ArrayList<>();
+        for (Entry entry : bucket) {
+            if ((entry.pos.getX() >> 4) == chunkX && (entry.pos.getZ() >> 4) == chunkZ) {
+                inChunk.add(entry);
+            }
+        }
+        for (Entry entry : inChunk) {
+            removeEntry(entry);
+        }
+        if (!inChunk.isEmpty()) {
+            setDirty();
+        }
+    }
+    
+    /**
+     * Get the indexed entry of a permission block, or null if the position is not indexed
+     */
+    public Entry getEntry(BlockPos pos) {
+        List<Entry> bucket = buckets.get(bucketKey(pos.getX(), pos.getZ()));
+        if (bucket != null) {
+            for (Entry entry : bucket) {
+                if (entry.pos.equals(pos)) {
+                    return entry;
+                }
+            }
+        }
+        return null;
+    }
+    
+    private void insert(Entry entry) {
+        buckets.computeIfAbsent(bucketKey(entry.pos.getX(), entry.pos.getZ()), k -> new ArrayList<>(2)).add(entry);
+        radiusCounts[entry.radius]++;
+        size++;
+    }
+    
+    private void removeEntry(Entry entry) {
+        long key = bucketKey(entry.pos.getX(), entry.pos.getZ());
+        List<Entry> bucket = buckets.get(key);
+        if (bucket == null || !bucket.remove(entry)) return;
+        
+        if (bucket.isEmpty()) {
+            buckets.remove(key);
+        }
+        radiusCounts[entry.radius]--;
+        size--;
+        verdicts.invalidateAround(entry.pos, entry.radius);
+    }
+    
+    /**
+     * Largest radius any indexed block covers, which bounds how far a lookup has to look
+     */
+    public int getMaxRadius(int defaultRange) {
+        for (int radius = MAX_RADIUS; radius > 0; radius--) {
+            if (radiusCounts[radius] > 0) {
+                return radiusCounts[0] > 0 ? Math.max(radius, defaultRange) : radius;
+            }
+        }
+        return radiusCounts[0] > 0 ? defaultRange : 0;
+    }
+    
+    /**
+     * Find the nearest indexed block whose own spherical radius reaches a position, or null if there is none
+     */
+    public Entry findCovering(BlockPos center, int defaultRange) {
+        int reach = getMaxRadius(defaultRange);
+        if (reach == 0) return null;
+        
+        Entry nearest = null;
+        long nearestDistSq = Long.MAX_VALUE;
+        
+        int minBucketX = (center.getX() - reach) >> BUCKET_SHIFT;
+        int maxBucketX = (center.getX() + reach) >> BUCKET_SHIFT;
+        int minBucketZ = (center.getZ() - reach) >> BUCKET_SHIFT;
+        int maxBucketZ = (center.getZ() + reach) >> BUCKET_SHIFT;
+        
+        for (int bx = minBucketX; bx <= maxBucketX; bx++) {
+            for (int bz = minBucketZ; bz <= maxBucketZ; bz++) {
+                List<Entry> bucket = buckets.get(ChunkPos.asLong(bx, bz));
+                if (bucket == null) continue;
+                
+                for (Entry entry : bucket) {
+                    long radius = entry.getEffectiveRadius(defaultRange);
+                    long dx = entry.pos.getX() - center.getX();
+                    long dy = entry.pos.getY() - center.getY();
+                    long dz = entry.pos.getZ() - center.getZ();
+                    long distSq = dx * dx + dy * dy + dz * dz;
+                    if (distSq <= radius * radius && distSq < nearestDistSq) {
+                        nearestDistSq = distSq;
+                        nearest = entry;
+                    }
+                }
+            }
+        }
+        
+        return nearest;
+    }
+    
+    /**
+     * Check for an indexed block whose cube of its own half size contains a position
+     */
+    public boolean hasCoveringCube(BlockPos center, int defaultRange) {
+        int reach = getMaxRadius(defaultRange);
+        if (reach == 0) return false;
+        
+        for (int bx = (center.getX() - reach) >> BUCKET_SHIFT; bx <= (center.getX() + reach) >> BUCKET_SHIFT; bx++) {
+            for (int bz = (center.getZ() - reach) >> BUCKET_SHIFT; bz <= (center.getZ() + reach) >> BUCKET_SHIFT; bz++) {
+                List<Entry> bucket = buckets.get(ChunkPos.asLong(bx, bz));
+                if (bucket == null) continue;
+                
+                for (Entry entry : bucket) {
+                    int radius = entry.getEffectiveRadius(defaultRange);
+                    if (Math.abs(entry.pos.getX() - center.getX()) <= radius
+                            && Math.abs(entry.pos.getY() - center.getY()) <= radius
+                            && Math.abs(entry.pos.getZ() - center.getZ()) <= radius) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Whether every permission block of the level is known to be indexed
+     * Worlds from before the index existed may have blocks that were never recorded
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+    
+    /**
+     * Record that every permission block of the level has been indexed
+     * Set by an admin after a rebuild covering every area that holds permission blocks
+     */
+    public void markComplete() {
+        if (!complete) {
+            complete = true;
+            setDirty();
+        }
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Per-ATM verdicts derived from this index
+     */
+    public PermissionVerdictCache getVerdicts() {
+        return verdicts;
+    }
+    
+    private static long bucketKey(int x, int z) {
+        return ChunkPos.asLong(x >> BUCKET_SHIFT, z >> BUCKET_SHIFT);
+    }
+}
@@ -0,0 +1,142 @@
+package com.infinix.enhancedatm.common.data;
+
+import com.infinix.enhancedatm.common.money.CurrencyId;
+import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.nbt.Tag;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Axis-aligned bank zone defined by an admin
+ * ATMs inside a zone are governed by it: they work without a Bank Permission Block, only handle
+ * the zone's currencies (all when none are listed) and charge the zone's exchange fee
+ */
+public final class BankZone {
+    
+    private final String name;
+    private final int minX, minY, minZ;
+    private final int maxX, maxY, maxZ;
+    private final Set<CurrencyId> currencies;
+    private final double feePercent;
+    
+    public BankZone(String name, BlockPos from, BlockPos to, Set<CurrencyId> currencies, double feePercent) {
+        this.name = name;
+        this.minX = Math.min(from.getX(), to.getX());
+        this.minY = Math.min(from.getY(), to.getY());
+        this.minZ = Math.min(from.getZ(), to.getZ());
+        this.maxX = Math.max(from.getX(), to.getX());
+        this.maxY = Math.max(from.getY(), to.getY());
+        this.maxZ = Math.max(from.getZ(), to.getZ());
+        this.currencies = currencies.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(EnumSet.copyOf(currencies));
+        this.feePercent = feePercent;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public int getMinX() {
+        return minX;
+    }
+    
+    public int getMinY() {
+        return minY;
+    }
+    
+    public int getMinZ() {
+        return minZ;
+    }
+    
+    public int getMaxX() {
+        return maxX;
+    }
+    
+    public int getMaxY() {
+        return maxY;
+    }
+    
+    public int getMaxZ() {
+        return maxZ;
+    }
+    
+    public boolean contains(int x, int y, int z) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+    
+    /**
+     * Number of blocks covered, nested zones govern over the zones that contain them
+     */
+    public long getVolume() {
+        return (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+    }
+    
+    /**
+     * Currencies handled in this zone, empty when every currency is allowed
+     */
+    public Set<CurrencyId> getCurrencies() {
+        return currencies;
+    }
+    
+    public boolean allowsCurrency(CurrencyId currency) {
+        return currencies.isEmpty() || currencies.contains(currency);
+    }
+    
+    /**
+     * Fee charged on currency exchanges, in percent of the converted amount
+     */
+    public double getFeePercent() {
+        return feePercent;
+    }
+    
+    public BankZone withCurrencies(Set<CurrencyId> newCurrencies) {
+        return new BankZone(name, new BlockPos(minX, minY, minZ), new BlockPos(maxX, maxY, maxZ), newCurrencies, feePercent);
+    }
+    
+    public BankZone withFee(double newFeePercent) {
+        return new BankZone(name, new BlockPos(minX, minY, minZ), new BlockPos(maxX, maxY, maxZ), currencies, newFeePercent);
+    }
+    
+    public CompoundTag toNBT() {
+        CompoundTag tag = new CompoundTag();
+        tag.putString("name", name);
+        tag.putIntArray("min", new int[] { minX, minY, minZ });
+        tag.putIntArray("max", new int[] { maxX, maxY, maxZ });
+        ListTag currencyList = new ListTag();
+        for (CurrencyId currency : currencies) {
+            currencyList.add(StringTag.valueOf(currency.getCode()));
+        }
+        tag.put("currencies", currencyList);
+        tag.putDouble("fee", feePercent);
+        return tag;
+    }
+    
+    public static BankZone fromNBT(CompoundTag tag) {
+        int[] min = tag.getIntArray("min");
+        int[] max = tag.getIntArray("max");
+        if (min.length != 3 || max.length != 3) {
+            return null;
+        }
+        
+        Set<CurrencyId> currencies = EnumSet.noneOf(CurrencyId.class);
+        ListTag currencyList = tag.getList("currencies", Tag.TAG_STRING);
+        for (int i = 0; i < currencyList.size(); i++) {
+            CurrencyId currency = CurrencyId.fromCode(currencyList.getString(i));
+            if (currency != null) {
+                currencies.add(currency);
+            }
+        }
+        
+        return new BankZone(tag.getString("name"), new BlockPos(min[0], min[1], min[2]),
+            new BlockPos(max[0], max[1], max[2]), currencies, tag.getDouble("fee"));
+    }
+    
+    @Override
+    public String toString() {
+        return name + " [" + minX + "," + minY + "," + minZ + " -> " + maxX + "," + maxY + "," + maxZ + "]";
+    }
+}
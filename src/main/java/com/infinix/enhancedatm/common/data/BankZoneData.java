@@ -0,0 +1,103 @@
+package com.infinix.enhancedatm.common.data;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.saveddata.SavedData;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Persistent per-dimension bank zones, looked up through an R-tree
+ */
+public class BankZoneData extends SavedData {
+    
+    private static final String DATA_NAME = "enhancedatm_bank_zones";
+    
+    private final Map<String, BankZone> zones = new LinkedHashMap<>();
+    
+    // Rebuilt on every edit, zones change far less often than ATMs are used
+    private ZoneRTree tree = ZoneRTree.build(Collections.emptyList());
+    
+    /**
+     * Get the zones of a level, loading them from the world save on first use
+     */
+    public static BankZoneData get(ServerLevel level) {
+        return level.getDataStorage().computeIfAbsent(BankZoneData::load, BankZoneData::new, DATA_NAME);
+    }
+    
+    /**
+     * Zone governing the ATM the player has open, or null outside of any zone
+     */
+    public static BankZone forOpenAtm(ServerPlayer player) {
+        if (player.containerMenu instanceof com.infinix.enhancedatm.common.container.EnhancedATMContainer atmContainer) {
+            BlockPos atmPos = atmContainer.getATMPosition();
+            if (atmPos != null) {
+                return get(player.serverLevel()).resolve(atmPos);
+            }
+        }
+        return null;
+    }
+    
+    public static BankZoneData load(CompoundTag tag) {
+        BankZoneData data = new BankZoneData();
+        ListTag list = tag.getList("zones", Tag.TAG_COMPOUND);
+        for (int i = 0; i < list.size(); i++) {
+            BankZone zone = BankZone.fromNBT(list.getCompound(i));
+            if (zone != null) {
+                data.zones.put(zone.getName(), zone);
+            }
+        }
+        data.tree = ZoneRTree.build(data.zones.values());
+        return data;
+    }
+    
+    @Override
+    public CompoundTag save(CompoundTag tag) {
+        ListTag list = new ListTag();
+        for (BankZone zone : zones.values()) {
+            list.add(zone.toNBT());
+        }
+        tag.put("zones", list);
+        return tag;
+    }
+    
+    /**
+     * Add a zone, or replace the zone with the same name
+     */
+    public void put(BankZone zone) {
+        zones.put(zone.getName(), zone);
+        tree = ZoneRTree.build(zones.values());
+        setDirty();
+    }
+    
+    public boolean remove(String name) {
+        if (zones.remove(name) == null) {
+            return false;
+        }
+        tree = ZoneRTree.build(zones.values());
+        setDirty();
+        return true;
+    }
+    
+    public BankZone getZone(String name) {
+        return zones.get(name);
+    }
+    
+    public Collection<BankZone> getZones() {
+        return Collections.unmodifiableCollection(zones.values());
+    }
+    
+    /**
+     * Find the zone governing a position: the smallest zone containing it, or null if none does
+     */
+    public BankZone resolve(BlockPos pos) {
+        return tree.findGoverning(pos.getX(), pos.getY(), pos.getZ());
+    }
+}
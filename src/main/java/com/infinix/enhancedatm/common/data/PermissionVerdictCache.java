@@ -0,0 +1,107 @@
+package com.infinix.enhancedatm.common.data;
+
+import net.minecraft.core.BlockPos;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Cache of Bank Permission verdicts per ATM position for one level
+ * Entries are dropped when a permission block changes within its radius of the ATM, and the whole
+ * cache is flushed when the configured default range differs from when it was filled or the config is reloaded
+ */
+public class PermissionVerdictCache {
+    
+    /**
+     * Cached answer for one ATM: the nearest permission block in range, or null when access is denied
+     */
+    public static final class Verdict {
+        private final BlockPos nearest;
+        
+        private Verdict(BlockPos nearest) {
+            this.nearest = nearest;
+        }
+        
+        public boolean isPermitted() {
+            return nearest != null;
+        }
+        
+        public BlockPos getNearest() {
+            return nearest;
+        }
+    }
+    
+    private final Map<Long, Verdict> verdicts = new HashMap<>();
+    private int cachedRange = -1;
+    
+    private long hits = 0;
+    private long misses = 0;
+    private long invalidations = 0;
+    
+    /**
+     * Get the cached verdict for an ATM, or null on a miss
+     */
+    public Verdict get(BlockPos atmPos, int range) {
+        if (range != cachedRange) {
+            // Configuration changed since these verdicts were computed
+            if (!verdicts.isEmpty()) {
+                invalidations += verdicts.size();
+                verdicts.clear();
+            }
+            cachedRange = range;
+        }
+        
+        Verdict verdict = verdicts.get(atmPos.asLong());
+        if (verdict != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return verdict;
+    }
+    
+    public void put(BlockPos atmPos, BlockPos nearest) {
+        verdicts.put(atmPos.asLong(), new Verdict(nearest != null ? nearest.immutable() : null));
+    }
+    
+    /**
+     * Drop the verdicts of every ATM within reach of a permission block that was placed, changed or removed
+     * A radius of 0 stands for the default range the cache was filled with
+     */
+    public void invalidateAround(BlockPos changedPos, int radius) {
+        if (verdicts.isEmpty()) return;
+        
+        long reach = radius > 0 ? radius : cachedRange;
+        long rangeSq = reach * reach;
+        Iterator<Map.Entry<Long, Verdict>> iterator = verdicts.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Verdict> entry = iterator.next();
+            if (BlockPos.of(entry.getKey()).distSqr(changedPos) <= rangeSq) {
+                iterator.remove();
+                invalidations++;
+            }
+        }
+    }
+    
+    public void clear() {
+        invalidations += verdicts.size();
+        verdicts.clear();
+    }
+    
+    public int size() {
+        return verdicts.size();
+    }
+    
+    public long getHits() {
+        return hits;
+    }
+    
+    public long getMisses() {
+        return misses;
+    }
+    
+    public long getInvalidations() {
+        return invalidations;
+    }
+}
@@ -1,5 +1,7 @@
 package com.infinix.enhancedatm.common.data;
 
+import com.infinix.enhancedatm.common.money.CurrencyId;
+import com.infinix.enhancedatm.common.money.Money;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
@@ -24,12 +26,12 @@ public class TransactionHistory {
      */
     public static class Transaction {
         public final String type;        // "deposit", "withdraw", "exchange"
-        public final double amount;
-        public final String currency;
+        public final Money amount;
+        public final String currency;    // Currency label, e.g. "EUR" or "EUR -> USD"
         public final String timestamp;
         public final String details;     // Additional information
         
-        public Transaction(String type, double amount, String currency, String details) {
+        public Transaction(String type, Money amount, String currency, String details) {
             this.type = type;
             this.amount = amount;
             this.currency = currency;
@@ -39,8 +41,8 @@ public class TransactionHistory {
         
         public Transaction(CompoundTag tag) {
             this.type = tag.getString("type");
-            this.amount = tag.getDouble("amount");
             this.currency = tag.getString("currency");
+            this.amount = readAmount(tag, this.currency);
             this.timestamp = tag.getString("timestamp");
             this.details = tag.getString("details");
         }
@@ -48,18 +50,34 @@ public class TransactionHistory {
         public CompoundTag toNBT() {
             CompoundTag tag = new CompoundTag();
             tag.putString("type", type);
-            tag.putDouble("amount", amount);
+            tag.putLong("amountMinor", amount.getMinorUnits());
+            tag.putString("amountCurrency", amount.getCurrency().getCode());
             tag.putString("currency", currency);
             tag.putString("timestamp", timestamp);
             tag.putString("details", details);
             return tag;
         }
+        
+        /**
+         * Read the fixed-point amount, falling back to the legacy double "amount" entry
+         */
+        private static Money readAmount(CompoundTag tag, String currencyLabel) {
+            CurrencyId amountCurrency = CurrencyId.fromCode(tag.getString("amountCurrency"));
+            if (amountCurrency != null && tag.contains("amountMinor")) {
+                return Money.ofMinor(tag.getLong("amountMinor"), amountCurrency);
+            }
+            
+            // Legacy entries only stored a double, the label starts with the amount's currency
+            CurrencyId legacyCurrency = currencyLabel.length() >= 3 ? CurrencyId.fromCode(currencyLabel.substring(0, 3)) : null;
+            if (legacyCurrency == null) legacyCurrency = CurrencyId.EUR;
+            return Money.ofMajor(tag.getDouble("amount"), legacyCurrency, Money.INPUT_ROUNDING);
+        }
     }
     
     /**
      * Add a transaction to player's history
      */
-    public static void addTransaction(Player player, String type, double amount, String currency, String details) {
+    public static void addTransaction(Player player, String type, Money amount, String currency, String details) {
         CompoundTag playerData = player.getPersistentData();
         
         // Get existing transactions
@@ -115,11 +133,11 @@ public class TransactionHistory {
      */
     public static String formatTransaction(Transaction transaction) {
         String symbol = transaction.type.equals("withdraw") ? "-" : "+";
-        return String.format("[%s] %s %s%.2f %s %s", 
+        return String.format("[%s] %s %s%s %s %s", 
             transaction.timestamp.substring(11), // Show only time
             transaction.type.toUpperCase(),
             symbol,
-            transaction.amount,
+            transaction.amount.toPlainString(),
             transaction.currency,
             transaction.details.isEmpty() ? "" : "(" + transaction.details + ")"
         ).trim();
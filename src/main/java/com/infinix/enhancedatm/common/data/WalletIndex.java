@@ -0,0 +1,271 @@
+package com.infinix.enhancedatm.common.data;
+
+import com.infinix.enhancedatm.common.money.CurrencyId;
+import com.infinix.enhancedatm.common.money.DenominationRegistry;
+import com.infinix.enhancedatm.common.money.Money;
+import net.minecraft.world.Container;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.inventory.AbstractContainerMenu;
+import net.minecraft.world.inventory.ContainerListener;
+import net.minecraft.world.inventory.Slot;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Server-side cache of the money each player carries
+ * Keeps per-currency totals and per-denomination counts for the player inventory and the open ATM grid,
+ * updated slot by slot from container listeners so balance checks do not rescan the inventory
+ * Only touched from the server thread
+ */
+public class WalletIndex {
+    
+    private static final Map<UUID, WalletIndex> WALLETS = new HashMap<>();
+    
+    private final Player player;
+    private final Listener listener = new Listener();
+    
+    // Last seen contents per slot, so a slot update can subtract what it replaces
+    private final Item[] inventoryItems;
+    private final int[] inventoryCounts;
+    private Container grid;
+    private Item[] gridItems = new Item[0];
+    private int[] gridCounts = new int[0];
+    
+    private final long[] inventoryTotals = new long[CurrencyId.count()];
+    private final long[] gridTotals = new long[CurrencyId.count()];
+    private final Map<Item, Integer> inventoryDenominations = new HashMap<>();
+    
+    private WalletIndex(Player player) {
+        this.player = player;
+        int size = player.getInventory().getContainerSize();
+        this.inventoryItems = new Item[size];
+        this.inventoryCounts = new int[size];
+    }
+    
+    /**
+     * Get the wallet of a player, creating and filling it on first use
+     */
+    public static WalletIndex get(Player player) {
+        WalletIndex wallet = WALLETS.get(player.getUUID());
+        if (wallet == null || wallet.player != player) {
+            // New login or a respawned player object, start from a full scan
+            wallet = new WalletIndex(player);
+            wallet.rebuild();
+            player.inventoryMenu.addSlotListener(wallet.listener);
+            WALLETS.put(player.getUUID(), wallet);
+        }
+        return wallet;
+    }
+    
+    /**
+     * Forget a player's wallet (logout)
+     */
+    public static void remove(Player player) {
+        WalletIndex wallet = WALLETS.remove(player.getUUID());
+        if (wallet != null) {
+            player.inventoryMenu.removeSlotListener(wallet.listener);
+        }
+    }
+    
+    /**
+     * Push pending slot changes of the player's open menu into the wallet right away
+     * Listeners otherwise only run when the menu broadcasts at the end of the tick
+     */
+    public static void flush(Player player) {
+        player.containerMenu.broadcastChanges();
+    }
+    
+    /**
+     * Start tracking an ATM menu and its denomination grid
+     */
+    public void attachAtm(AbstractContainerMenu menu, Container denominationGrid) {
+        detachAtm();
+        
+        this.grid = denominationGrid;
+        this.gridItems = new Item[denominationGrid.getContainerSize()];
+        this.gridCounts = new int[denominationGrid.getContainerSize()];
+        for (int i = 0; i < gridItems.length; i++) {
+            setGridSlot(i, denominationGrid.getItem(i));
+        }
+        
+        menu.addSlotListener(listener);
+    }
+    
+    /**
+     * Stop tracking the ATM grid, its contents go back to the inventory and arrive through slot updates
+     */
+    public void detachAtm() {
+        if (grid == null) return;
+        
+        for (int i = 0; i < gridItems.length; i++) {
+            setGridSlot(i, ItemStack.EMPTY);
+        }
+        grid = null;
+        gridItems = new Item[0];
+        gridCounts = new int[0];
+    }
+    
+    /**
+     * Total money of a currency in the inventory and the open ATM grid
+     */
+    public Money getTotal(CurrencyId currency) {
+        return Money.ofMinor(inventoryTotals[currency.ordinal()] + gridTotals[currency.ordinal()], currency);
+    }
+    
+    /**
+     * Total money of a currency in the player's inventory only
+     */
+    public Money getInventoryTotal(CurrencyId currency) {
+        return Money.ofMinor(inventoryTotals[currency.ordinal()], currency);
+    }
+    
+    /**
+     * Number of items of a denomination in the player's inventory
+     */
+    public int getInventoryCount(Item denomination) {
+        return inventoryDenominations.getOrDefault(denomination, 0);
+    }
+    
+    /**
+     * Recompute everything from the current slot contents
+     */
+    public void rebuild() {
+        Arrays.fill(inventoryTotals, 0L);
+        Arrays.fill(gridTotals, 0L);
+        Arrays.fill(inventoryItems, null);
+        Arrays.fill(inventoryCounts, 0);
+        inventoryDenominations.clear();
+        
+        for (int i = 0; i < inventoryItems.length; i++) {
+            setInventorySlot(i, player.getInventory().getItem(i));
+        }
+        
+        if (grid != null) {
+            Arrays.fill(gridItems, null);
+            Arrays.fill(gridCounts, 0);
+            for (int i = 0; i < gridItems.length; i++) {
+                setGridSlot(i, grid.getItem(i));
+            }
+        }
+    }
+    
+    /**
+     * Compare the cached totals against a full rescan, returning one line per mismatch
+     */
+    public List<String> verify() {
+        List<String> mismatches = new ArrayList<>();
+        
+        long[] expectedInventory = new long[CurrencyId.count()];
+        Map<Item, Integer> expectedDenominations = new HashMap<>();
+        for (int i = 0; i < inventoryItems.length; i++) {
+            ItemStack stack = player.getInventory().getItem(i);
+            CurrencyId currency = stack.isEmpty() ? null : DenominationRegistry.getCurrency(stack.getItem());
+            if (currency == null) continue;
+            
+            expectedInventory[currency.ordinal()] += DenominationRegistry.getMinorUnits(stack.getItem()) * stack.getCount();
+            expectedDenominations.merge(stack.getItem(), stack.getCount(), Integer::sum);
+        }
+        
+        long[] expectedGrid = new long[CurrencyId.count()];
+        if (grid != null) {
+            for (int i = 0; i < grid.getContainerSize(); i++) {
+                ItemStack stack = grid.getItem(i);
+                CurrencyId currency = stack.isEmpty() ? null : DenominationRegistry.getCurrency(stack.getItem());
+                if (currency == null) continue;
+                
+                expectedGrid[currency.ordinal()] += DenominationRegistry.getMinorUnits(stack.getItem()) * stack.getCount();
+            }
+        }
+        
+        for (int i = 0; i < CurrencyId.count(); i++) {
+            CurrencyId currency = CurrencyId.byOrdinal(i);
+            if (expectedInventory[i] != inventoryTotals[i]) {
+                mismatches.add("inventory " + currency + ": cached " + Money.ofMinor(inventoryTotals[i], currency)
+                    + ", actual " + Money.ofMinor(expectedInventory[i], currency));
+            }
+            if (expectedGrid[i] != gridTotals[i]) {
+                mismatches.add("grid " + currency + ": cached " + Money.ofMinor(gridTotals[i], currency)
+                    + ", actual " + Money.ofMinor(expectedGrid[i], currency));
+            }
+        }
+        
+        if (!expectedDenominations.equals(inventoryDenominations)) {
+            mismatches.add("denomination counts: cached " + inventoryDenominations.size()
+                + " kinds, actual " + expectedDenominations.size() + " kinds");
+        }
+        
+        return mismatches;
+    }
+    
+    private void setInventorySlot(int slot, ItemStack stack) {
+        if (slot < 0 || slot >= inventoryItems.length) return;
+        
+        Item oldItem = inventoryItems[slot];
+        int oldCount = inventoryCounts[slot];
+        if (oldItem != null) {
+            account(inventoryTotals, oldItem, -oldCount);
+            inventoryDenominations.computeIfPresent(oldItem, (item, count) -> count == oldCount ? null : count - oldCount);
+        }
+        
+        Item newItem = stack.isEmpty() || !DenominationRegistry.isDenomination(stack.getItem()) ? null : stack.getItem();
+        inventoryItems[slot] = newItem;
+        inventoryCounts[slot] = newItem != null ? stack.getCount() : 0;
+        
+        if (newItem != null) {
+            account(inventoryTotals, newItem, inventoryCounts[slot]);
+            inventoryDenominations.merge(newItem, inventoryCounts[slot], Integer::sum);
+        }
+    }
+    
+    private void setGridSlot(int slot, ItemStack stack) {
+        if (slot < 0 || slot >= gridItems.length) return;
+        
+        if (gridItems[slot] != null) {
+            account(gridTotals, gridItems[slot], -gridCounts[slot]);
+        }
+        
+        Item newItem = stack.isEmpty() || !DenominationRegistry.isDenomination(stack.getItem()) ? null : stack.getItem();
+        gridItems[slot] = newItem;
+        gridCounts[slot] = newItem != null ? stack.getCount() : 0;
+        
+        if (newItem != null) {
+            account(gridTotals, newItem, gridCounts[slot]);
+        }
+    }
+    
+    private static void account(long[] totals, Item item, int count) {
+        CurrencyId currency = DenominationRegistry.getCurrency(item);
+        if (currency != null) {
+            totals[currency.ordinal()] += DenominationRegistry.getMinorUnits(item) * count;
+        }
+    }
+    
+    /**
+     * Routes menu slot updates to the inventory or grid slot they belong to
+     */
+    private class Listener implements ContainerListener {
+        
+        @Override
+        public void slotChanged(AbstractContainerMenu menu, int slotIndex, ItemStack stack) {
+            if (slotIndex < 0 || slotIndex >= menu.slots.size()) return;
+            
+            Slot slot = menu.getSlot(slotIndex);
+            if (slot.container == player.getInventory()) {
+                setInventorySlot(slot.getContainerSlot(), stack);
+            } else if (slot.container == grid) {
+                setGridSlot(slot.getContainerSlot(), stack);
+            }
+        }
+        
+        @Override
+        public void dataChanged(AbstractContainerMenu menu, int dataSlot, int value) {
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.infinix.enhancedatm.common.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable R-tree over bank zones, bulk loaded with Sort-Tile-Recursive packing
+ * Zones are edited rarely and looked up on every ATM click, so the tree is rebuilt on each edit
+ * and point lookups descend only into nodes whose bounds contain the point
+ */
+final class ZoneRTree {
+    
+    private static final int NODE_CAPACITY = 8;
+    
+    private final Node root;
+    
+    private static final class Node {
+        final int minX, minY, minZ;
+        final int maxX, maxY, maxZ;
+        final Node[] children;
+        final BankZone zone;
+        
+        // Leaf for a single zone
+        Node(BankZone zone) {
+            this.minX = zone.getMinX();
+            this.minY = zone.getMinY();
+            this.minZ = zone.getMinZ();
+            this.maxX = zone.getMaxX();
+            this.maxY = zone.getMaxY();
+            this.maxZ = zone.getMaxZ();
+            this.children = null;
+            this.zone = zone;
+        }
+        
+        // Inner node covering its children
+        Node(List<Node> children) {
+            int x0 = Integer.MAX_VALUE, y0 = Integer.MAX_VALUE, z0 = Integer.MAX_VALUE;
+            int x1 = Integer.MIN_VALUE, y1 = Integer.MIN_VALUE, z1 = Integer.MIN_VALUE;
+            for (Node child : children) {
+                x0 = Math.min(x0, child.minX);
+                y0 = Math.min(y0, child.minY);
+                z0 = Math.min(z0, child.minZ);
+                x1 = Math.max(x1, child.maxX);
+                y1 = Math.max(y1, child.maxY);
+                z1 = Math.max(z1, child.maxZ);
+            }
+            this.minX = x0;
+            this.minY = y0;
+            this.minZ = z0;
+            this.maxX = x1;
+            this.maxY = y1;
+            this.maxZ = z1;
+            this.children = children.toArray(new Node[0]);
+            this.zone = null;
+        }
+        
+        boolean contains(int x, int y, int z) {
+            return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+        }
+        
+        long centerX() {
+            return (long) minX + maxX;
+        }
+        
+        long centerZ() {
+            return (long) minZ + maxZ;
+        }
+    }
+    
+    private ZoneRTree(Node root) {
+        this.root = root;
+    }
+    
+    static ZoneRTree build(Collection<BankZone> zones) {
+        if (zones.isEmpty()) {
+            return new ZoneRTree(null);
+        }
+        
+        List<Node> level = new ArrayList<>(zones.size());
+        for (BankZone zone : zones) {
+            level.add(new Node(zone));
+        }
+        
+        while (level.size() > 1) {
+            level = packLevel(level);
+        }
+        return new ZoneRTree(level.get(0));
+    }
+    
+    /**
+     * Group one level of nodes into parents: slice by X, then tile each slice by Z
+     */
+    private static List<Node> packLevel(List<Node> nodes) {
+        int parentCount = (nodes.size() + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        int sliceCount = (int) Math.ceil(Math.sqrt(parentCount));
+        int sliceSize = sliceCount * NODE_CAPACITY;
+        
+        List<Node> sorted = new ArrayList<>(nodes);
+        sorted.sort(Comparator.comparingLong(Node::centerX));
+        
+        List<Node> parents = new ArrayList<>(parentCount);
+        for (int sliceStart = 0; sliceStart < sorted.size(); sliceStart += sliceSize) {
+            List<Node> slice = new ArrayList<>(sorted.subList(sliceStart, Math.min(sliceStart + sliceSize, sorted.size())));
+            slice.sort(Comparator.comparingLong(Node::centerZ));
+            
+            for (int groupStart = 0; groupStart < slice.size(); groupStart += NODE_CAPACITY) {
+                parents.add(new Node(slice.subList(groupStart, Math.min(groupStart + NODE_CAPACITY, slice.size()))));
+            }
+        }
+        return parents;
+    }
+    
+    /**
+     * Find the smallest zone containing a point, or null if none does
+     */
+    BankZone findGoverning(int x, int y, int z) {
+        if (root == null || !root.contains(x, y, z)) {
+            return null;
+        }
+        
+        BankZone best = null;
+        List<Node> pending = new ArrayList<>();
+        pending.add(root);
+        
+        while (!pending.isEmpty()) {
+            Node node = pending.remove(pending.size() - 1);
+            if (node.zone != null) {
+                if (best == null || node.zone.getVolume() < best.getVolume()) {
+                    best = node.zone;
+                }
+                continue;
+            }
+            
+            for (Node child : node.children) {
+                if (child.contains(x, y, z)) {
+                    pending.add(child);
+                }
+            }
+        }
+        return best;
+    }
+}
@@ -2,6 +2,7 @@ package com.infinix.enhancedatm.common.events;
 
 import com.infinix.enhancedatm.EnhancedATMMod;
 import com.infinix.enhancedatm.common.container.EnhancedATMContainer;
+import com.infinix.enhancedatm.common.utils.AtmTypeRegistry;
 import com.infinix.enhancedatm.common.utils.BubusteinMoneyIntegration;
 import com.infinix.enhancedatm.common.utils.BankPermissionChecker;
 import net.minecraft.core.BlockPos;
@@ -26,9 +27,6 @@ import net.minecraftforge.network.NetworkHooks;
  */
 public class ATMInteractionHandler {
     
-    private static final String BUBUSTEIN_ATM_CLASS = "tk.bubustein.money.block.custom.ATM";
-    private static final String BUBUSTEIN_KEY_ITEM_CLASS = "tk.bubustein.money.item.KeyItem";
-    
     @SubscribeEvent
     public void onPlayerInteractWithBlock(PlayerInteractEvent.RightClickBlock event) {
         Player player = event.getEntity();
@@ -40,13 +38,13 @@ public class ATMInteractionHandler {
         Block block = blockState.getBlock();
         
         // Check if the block is a BubusteinMoney ATM
-        if (isATMBlock(block)) {
+        if (AtmTypeRegistry.isAtm(block)) {
             System.out.println("Enhanced ATM: ATM block detected, checking for key...");
             
             // First check if the Bank Permission System is enabled and if permission exists
             // Only check on server side to avoid duplicate messages
             if (BankPermissionChecker.isSystemEnabled()) {
-                boolean hasPermission = BankPermissionChecker.hasPermissionNearbySphere(level, pos);
+                boolean hasPermission = BankPermissionChecker.isAtmPermitted(level, pos);
                 
                 if (!hasPermission) {
                     // No Bank Permission Block nearby - deny access
@@ -64,8 +62,8 @@ public class ATMInteractionHandler {
                 }
             }
             
-            // Check if player has a key item in hand (try both methods)
-            boolean hasKey = isKeyItem(heldItem) || isKeyItemByName(heldItem);
+            // Check if player has a key item in hand
+            boolean hasKey = AtmTypeRegistry.isKey(heldItem);
             if (hasKey) {
                 System.out.println("Enhanced ATM: Key detected in hand: " + heldItem.getItem().getClass().getName());
                 if (!level.isClientSide) {
@@ -98,90 +96,16 @@ public class ATMInteractionHandler {
         }
     }
     
-    /**
-     * Check if the block is a BubusteinMoney ATM using reflection
-     */
-    private boolean isATMBlock(Block block) {
-        try {
-            Class<?> atmClass = Class.forName(BUBUSTEIN_ATM_CLASS);
-            boolean isATM = atmClass.isInstance(block);
-            if (isATM) {
-                System.out.println("Enhanced ATM: ATM block confirmed: " + block.getClass().getName());
-            }
-            return isATM;
-        } catch (ClassNotFoundException e) {
-            // BubusteinMoney mod not loaded - check by name as fallback
-            String blockName = block.getClass().getName();
-            boolean isATMByName = blockName.contains("ATM") && blockName.contains("bubustein");
-            if (isATMByName) {
-                System.out.println("Enhanced ATM: ATM detected by name: " + blockName);
-            }
-            return isATMByName;
-        } catch (Exception e) {
-            System.err.println("Enhanced ATM: Error checking ATM block: " + e.getMessage());
-            return false;
-        }
-    }
-    
-    /**
-     * Check if the item is a BubusteinMoney key using reflection
-     */
-    private boolean isKeyItem(ItemStack itemStack) {
-        if (itemStack.isEmpty()) {
-            return false;
-        }
-        
-        try {
-            Class<?> keyItemClass = Class.forName(BUBUSTEIN_KEY_ITEM_CLASS);
-            boolean isKey = keyItemClass.isInstance(itemStack.getItem());
-            System.out.println("Enhanced ATM: Checking item " + itemStack.getItem().getClass().getName() + " - Is key: " + isKey);
-            return isKey;
-        } catch (ClassNotFoundException e) {
-            System.err.println("Enhanced ATM: BubusteinMoney KeyItem class not found - mod not loaded?");
-            return false;
-        } catch (Exception e) {
-            System.err.println("Enhanced ATM: Error checking key item: " + e.getMessage());
-            return false;
-        }
-    }
-    
     /**
      * Check if player has a key item anywhere in their inventory
      */
     private boolean hasKeyInInventory(Player player) {
-        try {
-            Class<?> keyItemClass = Class.forName(BUBUSTEIN_KEY_ITEM_CLASS);
-            for (ItemStack stack : player.getInventory().items) {
-                if (keyItemClass.isInstance(stack.getItem())) {
-                    return true;
-                }
-            }
-            return false;
-        } catch (ClassNotFoundException e) {
-            // Fallback: check by class name
-            for (ItemStack stack : player.getInventory().items) {
-                if (!stack.isEmpty()) {
-                    String itemName = stack.getItem().getClass().getName();
-                    if (itemName.contains("KeyItem") && itemName.contains("bubustein")) {
-                        return true;
-                    }
-                }
+        for (ItemStack stack : player.getInventory().items) {
+            if (AtmTypeRegistry.isKey(stack)) {
+                return true;
             }
-            return false;
-        }
-    }
-    
-    /**
-     * Alternative key detection using class name (fallback method)
-     */
-    private boolean isKeyItemByName(ItemStack itemStack) {
-        if (itemStack.isEmpty()) {
-            return false;
         }
-        String itemName = itemStack.getItem().getClass().getName();
-        boolean isKey = itemName.contains("KeyItem") && itemName.contains("bubustein");
-        System.out.println("Enhanced ATM: Checking item by name " + itemName + " - Is key: " + isKey);
-        return isKey;
+        return false;
     }
     
     /**
@@ -0,0 +1,80 @@
+package com.infinix.enhancedatm.common.events;
+
+import com.infinix.enhancedatm.common.container.EnhancedATMContainer;
+import com.infinix.enhancedatm.common.data.AtmSessionManager;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.player.PlayerContainerEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.event.level.BlockEvent;
+import net.minecraftforge.event.level.ChunkEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+/**
+ * Feeds world and player events into the AtmSessionManager
+ */
+@Mod.EventBusSubscriber(modid = "enhancedatm", bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class AtmSessionEventHandler {
+    
+    // Reach is checked four times per second, an open menu costs one distance test per check
+    private static final int DISTANCE_CHECK_INTERVAL_TICKS = 5;
+    
+    private static int serverTicks = 0;
+    
+    @SubscribeEvent
+    public static void onContainerOpen(PlayerContainerEvent.Open event) {
+        if (event.getEntity() instanceof ServerPlayer player && event.getContainer() instanceof EnhancedATMContainer atm) {
+            AtmSessionManager.open(player, atm);
+        }
+    }
+    
+    @SubscribeEvent
+    public static void onContainerClose(PlayerContainerEvent.Close event) {
+        if (event.getEntity() instanceof ServerPlayer player && event.getContainer() instanceof EnhancedATMContainer) {
+            AtmSessionManager.close(player);
+        }
+    }
+    
+    @SubscribeEvent
+    public static void onPlayerLogout(PlayerEvent.PlayerLoggedOutEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            AtmSessionManager.close(player);
+        }
+    }
+    
+    @SubscribeEvent
+    public static void onChangeDimension(PlayerEvent.PlayerChangedDimensionEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            AtmSessionManager.onDimensionChange(player);
+        }
+    }
+    
+    /**
+     * Fired for every block change that notifies neighbours, including breaking, explosions and pistons
+     */
+    @SubscribeEvent
+    public static void onBlockChanged(BlockEvent.NeighborNotifyEvent event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            AtmSessionManager.onBlockChanged(level, event.getPos(), event.getState());
+        }
+    }
+    
+    @SubscribeEvent
+    public static void onChunkUnload(ChunkEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            AtmSessionManager.onChunkUnload(level, event.getChunk().getPos());
+        }
+    }
+    
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END) return;
+        
+        if (++serverTicks >= DISTANCE_CHECK_INTERVAL_TICKS) {
+            serverTicks = 0;
+            AtmSessionManager.checkDistances();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.infinix.enhancedatm.common.events;
+
+import com.infinix.enhancedatm.common.data.BankPermissionIndex;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+/**
+ * Keeps the Bank Permission index of each dimension available
+ */
+@Mod.EventBusSubscriber(modid = "enhancedatm", bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class BankPermissionEventHandler {
+    
+    /**
+     * Load (or create) the index when a dimension loads, so a brand-new world is recognised before its first tick
+     */
+    @SubscribeEvent
+    public static void onLevelLoad(LevelEvent.Load event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            BankPermissionIndex index = BankPermissionIndex.get(level);
+            System.out.println("Enhanced ATM: Bank Permission index for " + level.dimension().location() + 
+                " has " + index.size() + " block(s)" + (index.isComplete() ? "" : ", legacy blocks are found by scanning"));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.infinix.enhancedatm.common.events;
+
+import com.infinix.enhancedatm.common.data.BankPermissionIndex;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.event.config.ModConfigEvent;
+import net.minecraftforge.server.ServerLifecycleHooks;
+
+/**
+ * Reacts to changes of the common config file
+ */
+@Mod.EventBusSubscriber(modid = "enhancedatm", bus = Mod.EventBusSubscriber.Bus.MOD)
+public class ConfigEventHandler {
+    
+    /**
+     * Permission verdicts depend on the range and on the system being enabled, drop them all on reload
+     */
+    @SubscribeEvent
+    public static void onConfigReload(ModConfigEvent.Reloading event) {
+        if (!"enhancedatm".equals(event.getConfig().getModId())) return;
+        
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server == null) return;
+        
+        // Config reloads come from the file watcher thread, the caches belong to the server thread
+        server.execute(() -> {
+            for (ServerLevel level : server.getAllLevels()) {
+                BankPermissionIndex.get(level).getVerdicts().clear();
+            }
+            System.out.println("Enhanced ATM: Config reloaded, cleared Bank Permission verdict caches");
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package com.infinix.enhancedatm.common.events;
+
+import com.infinix.enhancedatm.common.utils.BubusteinMoneyIntegration;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+/**
+ * Periodically checks BubusteinMoney's exchange rates and republishes the rate snapshot when they change
+ */
+@Mod.EventBusSubscriber(modid = "enhancedatm", bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class ExchangeRateEventHandler {
+    
+    // Rates are checked once per second, a change costs only a map hash until then
+    private static final int REFRESH_INTERVAL_TICKS = 20;
+    
+    private static int serverTicks = 0;
+    private static int clientTicks = 0;
+    
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END) return;
+        
+        if (++serverTicks >= REFRESH_INTERVAL_TICKS) {
+            serverTicks = 0;
+            BubusteinMoneyIntegration.refreshExchangeRates();
+        }
+    }
+    
+    @SubscribeEvent
+    public static void onClientTick(TickEvent.ClientTickEvent event) {
+        if (event.phase != TickEvent.Phase.END) return;
+        
+        if (++clientTicks >= REFRESH_INTERVAL_TICKS) {
+            clientTicks = 0;
+            BubusteinMoneyIntegration.refreshExchangeRates();
+        }
+    }
+}
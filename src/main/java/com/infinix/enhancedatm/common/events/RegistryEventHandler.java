@@ -0,0 +1,32 @@
+package com.infinix.enhancedatm.common.events;
+
+import com.infinix.enhancedatm.common.money.DenominationRegistry;
+import com.infinix.enhancedatm.common.money.MoneyItemCache;
+import net.minecraftforge.event.TagsUpdatedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.registries.IdMappingEvent;
+
+/**
+ * Keeps registry-id based caches in step with the item registry
+ */
+@Mod.EventBusSubscriber(modid = "enhancedatm", bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class RegistryEventHandler {
+    
+    /**
+     * Raw item ids change when registries are remapped (e.g. joining a server), rebuild id-indexed tables
+     */
+    @SubscribeEvent
+    public static void onIdMapping(IdMappingEvent event) {
+        DenominationRegistry.rebuild();
+        MoneyItemCache.invalidate();
+    }
+    
+    /**
+     * Datapack reloads can change what items exist as money, drop cached classifications
+     */
+    @SubscribeEvent
+    public static void onTagsUpdated(TagsUpdatedEvent event) {
+        MoneyItemCache.invalidate();
+    }
+}
@@ -1,10 +1,14 @@
 package com.infinix.enhancedatm.common.events;
 
-import com.infinix.enhancedatm.common.config.ATMGuiConfig;
+import com.infinix.enhancedatm.common.config.Config;
+import com.infinix.enhancedatm.common.config.GuiConfigWatcher;
 import com.infinix.enhancedatm.common.network.NetworkHandler;
+import com.infinix.enhancedatm.common.network.packets.SyncDenominationTablePacket;
 import com.infinix.enhancedatm.common.network.packets.SyncGuiConfigPacket;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.event.server.ServerStartedEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.network.PacketDistributor;
@@ -21,13 +25,28 @@ public class ServerEventHandler {
     @SubscribeEvent
     public static void onPlayerJoin(PlayerEvent.PlayerLoggedInEvent event) {
         if (event.getEntity() instanceof ServerPlayer player) {
-            // Send current GUI configuration to the joining player
-            String configJson = ATMGuiConfig.getConfigAsJson();
-            SyncGuiConfigPacket syncPacket = new SyncGuiConfigPacket(configJson);
+            // Announce the GUI configuration hash, the client applies its cached copy or asks for the full configuration
+            NetworkHandler.INSTANCE.send(PacketDistributor.PLAYER.with(() -> player), SyncGuiConfigPacket.announce());
             
-            NetworkHandler.INSTANCE.send(PacketDistributor.PLAYER.with(() -> player), syncPacket);
+            System.out.println("Enhanced ATM: Announced GUI configuration to player " + player.getName().getString());
             
-            System.out.println("Enhanced ATM: Synced GUI configuration to player " + player.getName().getString());
+            // Announce the denomination table hash, the client asks for the full table only if its own differs
+            NetworkHandler.INSTANCE.send(PacketDistributor.PLAYER.with(() -> player), SyncDenominationTablePacket.hashOnly());
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Start hot reloading the GUI configuration file if enabled
+     */
+    @SubscribeEvent
+    public static void onServerStarted(ServerStartedEvent event) {
+        if (Config.WATCH_GUI_CONFIG.get()) {
+            GuiConfigWatcher.start(event.getServer());
+        }
+    }
+    
+    @SubscribeEvent
+    public static void onServerStopping(ServerStoppingEvent event) {
+        GuiConfigWatcher.stop();
+    }
+}
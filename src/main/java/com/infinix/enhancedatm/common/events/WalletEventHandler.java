@@ -0,0 +1,83 @@
+package com.infinix.enhancedatm.common.events;
+
+import com.infinix.enhancedatm.common.container.EnhancedATMContainer;
+import com.infinix.enhancedatm.common.data.WalletIndex;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.event.entity.item.ItemTossEvent;
+import net.minecraftforge.event.entity.player.PlayerContainerEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+/**
+ * Keeps each player's WalletIndex attached to their inventory and open ATM
+ */
+@Mod.EventBusSubscriber(modid = "enhancedatm", bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class WalletEventHandler {
+    
+    @SubscribeEvent
+    public static void onPlayerLogin(PlayerEvent.PlayerLoggedInEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            WalletIndex.get(player);
+        }
+    }
+    
+    @SubscribeEvent
+    public static void onPlayerLogout(PlayerEvent.PlayerLoggedOutEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            WalletIndex.remove(player);
+        }
+    }
+    
+    /**
+     * Respawning creates a new player object, attach a fresh wallet to its inventory
+     */
+    @SubscribeEvent
+    public static void onPlayerRespawn(PlayerEvent.PlayerRespawnEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            WalletIndex.get(player);
+        }
+    }
+    
+    @SubscribeEvent
+    public static void onContainerOpen(PlayerContainerEvent.Open event) {
+        if (event.getEntity() instanceof ServerPlayer player && event.getContainer() instanceof EnhancedATMContainer atm) {
+            WalletIndex.get(player).attachAtm(atm, atm.getDenominationContainer());
+        }
+    }
+    
+    /**
+     * While another menu is open the inventory menu listener gets no updates, and the ATM menu does not
+     * cover armor and offhand, so resync from the live inventory whenever a menu closes
+     */
+    @SubscribeEvent
+    public static void onContainerClose(PlayerContainerEvent.Close event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            WalletIndex wallet = WalletIndex.get(player);
+            if (event.getContainer() instanceof EnhancedATMContainer) {
+                wallet.detachAtm();
+            }
+            wallet.rebuild();
+        }
+    }
+    
+    /**
+     * Picked up money is counted right away instead of at the end of the tick
+     */
+    @SubscribeEvent
+    public static void onItemPickup(PlayerEvent.ItemPickupEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            WalletIndex.flush(player);
+        }
+    }
+    
+    /**
+     * Dropped money is discounted right away instead of at the end of the tick
+     */
+    @SubscribeEvent
+    public static void onItemToss(ItemTossEvent event) {
+        if (event.getPlayer() instanceof ServerPlayer player) {
+            WalletIndex.flush(player);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.infinix.enhancedatm.common.money;
+
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Currency-agnostic change-making over a DenominationRegistry table
+ * Works in integer minor units, so coins are dispensed exactly and no currency needs its own code
+ */
+public final class ChangeMaker {
+    
+    private ChangeMaker() {
+    }
+    
+    /**
+     * Result of breaking an amount into denominations
+     * The leftover is the part below the smallest denomination that could not be paid out, it is never rounded up
+     */
+    public static final class Change {
+        private final DenominationRegistry.CurrencyTable table;
+        private final long[] counts;
+        private final long leftover;
+        
+        private Change(DenominationRegistry.CurrencyTable table, long[] counts, long leftover) {
+            this.table = table;
+            this.counts = counts;
+            this.leftover = leftover;
+        }
+        
+        public CurrencyId getCurrency() {
+            return table.getCurrency();
+        }
+        
+        public long getCount(int index) {
+            return counts[index];
+        }
+        
+        /**
+         * Part of the amount that could not be paid out
+         */
+        public Money getLeftover() {
+            return Money.ofMinor(leftover, table.getCurrency());
+        }
+        
+        /**
+         * Amount actually covered by the denominations
+         */
+        public Money getPaid() {
+            long paid = 0L;
+            for (int i = 0; i < counts.length; i++) {
+                paid += counts[i] * table.getMinorUnits(i);
+            }
+            return Money.ofMinor(paid, table.getCurrency());
+        }
+        
+        public boolean isExact() {
+            return leftover == 0L;
+        }
+        
+        /**
+         * Build the item stacks for the paid part, split by max stack size
+         */
+        public List<ItemStack> toStacks() {
+            List<ItemStack> stacks = new ArrayList<>();
+            
+            for (int i = 0; i < counts.length; i++) {
+                long count = counts[i];
+                if (count <= 0) continue;
+                
+                int maxStackSize = new ItemStack(table.getItem(i)).getMaxStackSize();
+                while (count > 0) {
+                    int stackCount = (int) Math.min(count, maxStackSize);
+                    stacks.add(new ItemStack(table.getItem(i), stackCount));
+                    count -= stackCount;
+                }
+            }
+            return stacks;
+        }
+    }
+    
+    /**
+     * Break an amount into a count per denomination, largest denominations first
+     * Whatever is left below the smallest denomination is reported as leftover, callers either refuse
+     * the amount or keep the leftover on the card
+     */
+    public static Change breakdown(DenominationRegistry.CurrencyTable table, long minorUnits) {
+        long[] counts = new long[table.size()];
+        long remaining = Math.max(0L, minorUnits);
+        
+        for (int i = 0; i < counts.length && remaining > 0; i++) {
+            long value = table.getMinorUnits(i);
+            counts[i] = remaining / value;
+            remaining -= counts[i] * value;
+        }
+        return new Change(table, counts, remaining);
+    }
+    
+    /**
+     * Hand a batch of stacks to the player, dropping whatever does not fit
+     */
+    public static void give(Player player, List<ItemStack> stacks) {
+        for (ItemStack stack : stacks) {
+            player.getInventory().placeItemBackInInventory(stack);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.infinix.enhancedatm.common.money;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Currencies supported by BubusteinMoney
+ * Each currency knows how many decimal places its minor unit has
+ */
+public enum CurrencyId {
+    EUR(2), USD(2), GBP(2), CAD(2), RON(2), MDL(2), CHF(2), AUD(2), JPY(0),
+    CZK(2), MXN(2), NOK(2), DKK(2), SEK(2), HUF(2), PLN(2), RSD(2), ISK(2),
+    CNY(2), INR(2), KRW(0), BRL(2), ZAR(2), TRY(2), NZD(2), PHP(2), EGP(2);
+    
+    private static final CurrencyId[] VALUES = values();
+    private static final Map<String, CurrencyId> BY_CODE = new HashMap<>();
+    
+    static {
+        for (CurrencyId currency : VALUES) {
+            BY_CODE.put(currency.name(), currency);
+        }
+    }
+    
+    private final int scale;
+    private final long minorPerMajor;
+    
+    CurrencyId(int scale) {
+        this.scale = scale;
+        long factor = 1;
+        for (int i = 0; i < scale; i++) {
+            factor *= 10;
+        }
+        this.minorPerMajor = factor;
+    }
+    
+    /**
+     * Number of decimal places of the minor unit
+     */
+    public int getScale() {
+        return scale;
+    }
+    
+    /**
+     * Number of minor units in one major unit (100 for cents, 1 for yen)
+     */
+    public long getMinorPerMajor() {
+        return minorPerMajor;
+    }
+    
+    public String getCode() {
+        return name();
+    }
+    
+    /**
+     * Resolve a currency code, ignoring case - returns null for unknown codes
+     */
+    public static CurrencyId fromCode(String code) {
+        if (code == null) return null;
+        
+        CurrencyId currency = BY_CODE.get(code);
+        return currency != null ? currency : BY_CODE.get(code.toUpperCase(Locale.ROOT));
+    }
+    
+    /**
+     * Resolve a currency by ordinal - returns null when out of range
+     */
+    public static CurrencyId byOrdinal(int ordinal) {
+        return ordinal >= 0 && ordinal < VALUES.length ? VALUES[ordinal] : null;
+    }
+    
+    public static int count() {
+        return VALUES.length;
+    }
+}
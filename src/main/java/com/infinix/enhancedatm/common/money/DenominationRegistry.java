@@ -0,0 +1,452 @@
+package com.infinix.enhancedatm.common.money;
+
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.Items;
+import net.minecraftforge.registries.ForgeRegistries;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Identity index of BubusteinMoney denomination items
+ * The denomination table is plain data resolved against the item registry once, into
+ * primitive arrays indexed by the item's raw registry id, so valuing an item is a single array load
+ */
+public final class DenominationRegistry {
+    
+    public static final String MOD_ID = "bubusteinmoneymod";
+    
+    private static final List<Definition> DEFINITIONS = new ArrayList<>();
+    
+    private static volatile Index index;
+    
+    static {
+        define(CurrencyId.EUR,
+                "five_hundred_euros", "500", "two_hundred_euros", "200", "hundred_euros", "100",
+                "fifty_euros", "50", "twenty_euros", "20", "ten_euros", "10",
+                "five_euros", "5", "two_euros", "2", "one_euro", "1",
+                "fifty_ecents", "0.50", "twenty_ecents", "0.20", "ten_ecents", "0.10",
+                "five_ecents", "0.05", "two_ecents", "0.02", "one_ecent", "0.01");
+        define(CurrencyId.USD,
+                "hundred_dollars", "100", "fifty_dollars", "50", "twenty_dollars", "20",
+                "ten_dollars", "10", "five_dollars", "5", "one_dollar", "1",
+                "fifty_cents", "0.50", "twentyfive_cents", "0.25", "ten_cents", "0.10",
+                "five_cents", "0.05", "one_cent", "0.01");
+        define(CurrencyId.GBP,
+                "fifty_pounds", "50", "twenty_pounds", "20", "ten_pounds", "10",
+                "five_pounds", "5", "two_pounds", "2", "one_pound", "1",
+                "fifty_pence", "0.50", "twenty_pence", "0.20", "ten_pence", "0.10",
+                "five_pence", "0.05", "two_pence", "0.02", "one_pence", "0.01");
+        define(CurrencyId.CAD,
+                "hundred_cdollars", "100", "fifty_cdollars", "50", "twenty_cdollars", "20",
+                "ten_cdollars", "10", "five_cdollars", "5", "toonie", "2",
+                "loonie", "1", "twentyfive_ccents", "0.25", "ten_ccents", "0.10",
+                "five_ccents", "0.05");
+        define(CurrencyId.RON,
+                "cinci_sute_lei", "500", "doua_sute_lei", "200", "suta_lei", "100",
+                "cincizeci_lei", "50", "douazeci_lei", "20", "zece_lei", "10",
+                "cinci_lei", "5", "un_leu", "1", "cincizeci_bani", "0.50",
+                "zece_bani", "0.10", "cinci_bani", "0.05", "un_ban", "0.01");
+        define(CurrencyId.MDL,
+                "mie_lei_md", "1000", "cinci_sute_lei_md", "500", "doua_sute_lei_md", "200",
+                "suta_lei_md", "100", "cincizeci_lei_md", "50", "douazeci_lei_md", "20",
+                "zece_lei_md", "10", "cinci_lei_md", "5", "doi_lei_md", "2",
+                "un_leu_md", "1", "cincizeci_bani_md", "0.50", "douazecicinci_bani_md", "0.25",
+                "zece_bani_md", "0.10", "cinci_bani_md", "0.05");
+        define(CurrencyId.CHF,
+                "thousand_francs", "1000", "two_hundred_francs", "200", "hundred_francs", "100",
+                "fifty_francs", "50", "twenty_francs", "20", "ten_francs", "10",
+                "five_francs", "5", "two_francs", "2", "one_franc", "1",
+                "half_franc", "0.50", "twenty_centimes", "0.20", "ten_centimes", "0.10",
+                "five_centimes", "0.05");
+        define(CurrencyId.AUD,
+                "hundred_adollars", "100", "fifty_adollars", "50", "twenty_adollars", "20",
+                "ten_adollars", "10", "five_adollars", "5", "two_adollars", "2",
+                "one_adollar", "1", "fifty_acents", "0.50", "twenty_acents", "0.20",
+                "ten_acents", "0.10", "five_acents", "0.05");
+        define(CurrencyId.JPY,
+                "ten_thousand_yen", "10000", "five_thousand_yen", "5000", "thousand_yen", "1000",
+                "five_hundred_yen", "500", "hundred_yen", "100", "fifty_yen", "50",
+                "ten_yen", "10", "five_yen", "5", "one_yen", "1");
+        define(CurrencyId.CZK,
+                "five_thousand_cz_krone", "5000", "two_thousand_cz_krone", "2000", "thousand_cz_krone", "1000",
+                "five_hundred_cz_krone", "500", "two_hundred_cz_krone", "200", "hundred_cz_krone", "100",
+                "fifty_cz_krone", "50", "twenty_cz_krone", "20", "ten_cz_krone", "10",
+                "five_cz_krone", "5", "two_cz_krone", "2", "one_cz_krone", "1");
+        define(CurrencyId.MXN,
+                "thousand_mx_pesos", "1000", "five_hundred_mx_pesos", "500", "two_hundred_mx_pesos", "200",
+                "hundred_mx_pesos", "100", "fifty_mx_pesos", "50", "twenty_mx_pesos", "20",
+                "ten_mx_pesos", "10", "five_mx_pesos", "5", "two_mx_pesos", "2",
+                "one_mx_peso", "1", "fifty_mx_centavos", "0.50", "twenty_mx_centavos", "0.20",
+                "ten_mx_centavos", "0.10", "five_mx_centavos", "0.05");
+        define(CurrencyId.CNY,
+                "hundred_cn_yuan", "100", "fifty_cn_yuan", "50", "twenty_cn_yuan", "20",
+                "ten_cn_yuan", "10", "five_cn_yuan", "5", "one_cn_yuan", "1",
+                "five_cn_jiao", "0.50", "one_cn_jiao", "0.10");
+        define(CurrencyId.NOK,
+                "thousand_no_krone", "1000", "five_hundred_no_krone", "500", "two_hundred_no_krone", "200",
+                "hundred_no_krone", "100", "fifty_no_krone", "50", "twenty_no_krone", "20",
+                "ten_no_krone", "10", "five_no_krone", "5", "one_no_krone", "1");
+        define(CurrencyId.DKK,
+                "thousand_dk_krone", "1000", "five_hundred_dk_krone", "500", "two_hundred_dk_krone", "200",
+                "hundred_dk_krone", "100", "fifty_dk_krone", "50", "twenty_dk_krone", "20",
+                "ten_dk_krone", "10", "five_dk_krone", "5", "two_dk_krone", "2",
+                "one_dk_krone", "1", "fifty_aere_dk", "0.50");
+        define(CurrencyId.SEK,
+                "thousand_se_krone", "1000", "five_hundred_se_krone", "500", "two_hundred_se_krone", "200",
+                "hundred_se_krone", "100", "fifty_se_krone", "50", "twenty_se_krone", "20",
+                "ten_se_krone", "10", "five_se_krone", "5", "two_se_krone", "2",
+                "one_se_krone", "1");
+        define(CurrencyId.HUF,
+                "twenty_thousand_ft", "20000", "ten_thousand_ft", "10000", "five_thousand_ft", "5000",
+                "two_thousand_ft", "2000", "thousand_ft", "1000", "five_hundred_ft", "500",
+                "two_hundred_ft", "200", "hundred_ft", "100", "fifty_ft", "50",
+                "twenty_ft", "20", "ten_ft", "10", "five_ft", "5");
+        define(CurrencyId.PLN,
+                "five_hundred_zloty", "500", "two_hundred_zloty", "200", "hundred_zloty", "100",
+                "fifty_zloty", "50", "twenty_zloty", "20", "ten_zloty", "10",
+                "five_zloty", "5", "two_zloty", "2", "one_zloty", "1",
+                "fifty_groszy", "0.50", "twenty_groszy", "0.20", "ten_groszy", "0.10",
+                "five_groszy", "0.05", "two_grosze", "0.02", "one_grosz", "0.01");
+        define(CurrencyId.RSD,
+                "five_thousand_rs_dinar", "5000", "two_thousand_rs_dinar", "2000", "thousand_rs_dinar", "1000",
+                "five_hundred_rs_dinar", "500", "two_hundred_rs_dinar", "200", "hundred_rs_dinar", "100",
+                "fifty_rs_dinar", "50", "twenty_rs_dinar", "20", "ten_rs_dinar", "10",
+                "five_rs_dinar", "5", "two_rs_dinar", "2", "one_rs_dinar", "1");
+        define(CurrencyId.ISK,
+                "ten_thousand_is_krone", "10000", "five_thousand_is_krone", "5000", "two_thousand_is_krone", "2000",
+                "thousand_is_krone", "1000", "five_hundred_is_krone", "500", "hundred_is_krone", "100",
+                "fifty_is_krone", "50", "ten_is_krone", "10", "five_is_krone", "5",
+                "one_is_krone", "1");
+        define(CurrencyId.INR,
+                "five_hundred_in_rupees", "500", "two_hundred_in_rupees", "200", "hundred_in_rupees", "100",
+                "fifty_in_rupees", "50", "twenty_in_rupees", "20", "ten_in_rupees", "10",
+                "five_in_rupees", "5", "two_in_rupees", "2", "one_in_rupee", "1");
+        define(CurrencyId.KRW,
+                "fifty_thousand_kr_won", "50000", "ten_thousand_kr_won", "10000", "five_thousand_kr_won", "5000",
+                "thousand_kr_won", "1000", "five_hundred_kr_won", "500", "hundred_kr_won", "100",
+                "fifty_kr_won", "50", "ten_kr_won", "10");
+        define(CurrencyId.BRL,
+                "two_hundred_br_reais", "200", "hundred_br_reais", "100", "fifty_br_reais", "50",
+                "twenty_br_reais", "20", "ten_br_reais", "10", "five_br_reais", "5",
+                "two_br_reais", "2", "one_br_real", "1", "fifty_br_centavos", "0.50",
+                "twentyfive_br_centavos", "0.25", "ten_br_centavos", "0.10", "five_br_centavos", "0.05");
+        define(CurrencyId.ZAR,
+                "two_hundred_za_rand", "200", "hundred_za_rand", "100", "fifty_za_rand", "50",
+                "twenty_za_rand", "20", "ten_za_rand", "10", "five_za_rand", "5",
+                "two_za_rand", "2", "one_za_rand", "1", "fifty_za_cents", "0.50",
+                "twenty_za_cents", "0.20", "ten_za_cents", "0.10");
+        define(CurrencyId.TRY,
+                "two_hundred_tr_lira", "200", "hundred_tr_lira", "100", "fifty_tr_lira", "50",
+                "twenty_tr_lira", "20", "ten_tr_lira", "10", "five_tr_lira", "5",
+                "one_tr_lira", "1", "fifty_kurus", "0.50", "twenty_five_kurus", "0.25",
+                "ten_kurus", "0.10", "five_kurus", "0.05", "one_kurus", "0.01");
+        define(CurrencyId.NZD,
+                "hundred_nz_dollars", "100", "fifty_nz_dollars", "50", "twenty_nz_dollars", "20",
+                "ten_nz_dollars", "10", "five_nz_dollars", "5", "two_nz_dollars", "2",
+                "one_nz_dollar", "1", "fifty_nz_cents", "0.50", "twenty_nz_cents", "0.20",
+                "ten_nz_cents", "0.10");
+        define(CurrencyId.PHP,
+                "thousand_ph_piso", "1000", "five_hundred_ph_piso", "500", "two_hundred_ph_piso", "200",
+                "hundred_ph_piso", "100", "fifty_ph_piso", "50", "twenty_ph_piso", "20",
+                "ten_ph_piso", "10", "five_ph_piso", "5", "one_ph_piso", "1",
+                "twenty_five_ph_sentimo", "0.25", "five_ph_sentimo", "0.05", "one_ph_sentimo", "0.01");
+        define(CurrencyId.EGP,
+                "two_hundred_eg_pound", "200", "hundred_eg_pound", "100", "fifty_eg_pound", "50",
+                "twenty_eg_pound", "20", "ten_eg_pound", "10", "five_eg_pound", "5",
+                "one_eg_pound", "1", "fifty_eg_piastres", "0.50", "twentyfive_eg_piastres", "0.25");
+    }
+    
+    private DenominationRegistry() {
+    }
+    
+    /**
+     * Add the denominations of a currency as (registry path, decimal value) pairs
+     */
+    private static void define(CurrencyId currency, String... pathValuePairs) {
+        for (int i = 0; i + 1 < pathValuePairs.length; i += 2) {
+            long minorUnits = new BigDecimal(pathValuePairs[i + 1]).movePointRight(currency.getScale()).longValueExact();
+            DEFINITIONS.add(new Definition(currency, pathValuePairs[i], minorUnits));
+        }
+    }
+    
+    /**
+     * Resolve the denomination table against the current item registry ids
+     * Called after registries freeze and whenever raw ids are remapped
+     */
+    public static synchronized void rebuild() {
+        List<Item> items = new ArrayList<>(DEFINITIONS.size());
+        List<CurrencyId> currencies = new ArrayList<>(DEFINITIONS.size());
+        List<Long> values = new ArrayList<>(DEFINITIONS.size());
+        
+        for (Definition definition : DEFINITIONS) {
+            ResourceLocation key = new ResourceLocation(MOD_ID, definition.path);
+            if (!ForgeRegistries.ITEMS.containsKey(key)) continue;
+            
+            Item item = ForgeRegistries.ITEMS.getValue(key);
+            if (item == null) continue;
+            
+            items.add(item);
+            currencies.add(definition.currency);
+            values.add(definition.minorUnits);
+        }
+        
+        index = buildIndex(items, currencies, values);
+        System.out.println("Enhanced ATM: Denomination registry built with " + items.size() + " of " + DEFINITIONS.size() + " denominations");
+    }
+    
+    /**
+     * Replace the table with the one the server settles with (client side, at login)
+     * Entries are (raw item id, currency ordinal, minor units), ids unknown to this client are skipped
+     */
+    public static synchronized void applyServerTable(int[] itemIds, byte[] currencyOrdinals, long[] minorUnits) {
+        List<Item> items = new ArrayList<>(itemIds.length);
+        List<CurrencyId> currencies = new ArrayList<>(itemIds.length);
+        List<Long> values = new ArrayList<>(itemIds.length);
+        
+        for (int i = 0; i < itemIds.length; i++) {
+            Item item = Item.byId(itemIds[i]);
+            CurrencyId currency = CurrencyId.byOrdinal(currencyOrdinals[i]);
+            if (item == Items.AIR || currency == null) continue;
+            
+            items.add(item);
+            currencies.add(currency);
+            values.add(minorUnits[i]);
+        }
+        
+        index = buildIndex(items, currencies, values);
+        System.out.println("Enhanced ATM: Denomination table synced from server with " + items.size() + " denominations");
+    }
+    
+    private static Index buildIndex(List<Item> items, List<CurrencyId> currencies, List<Long> values) {
+        int maxId = -1;
+        for (Item item : items) {
+            maxId = Math.max(maxId, Item.getId(item));
+        }
+        
+        byte[] currencyById = new byte[maxId + 1];
+        long[] minorById = new long[maxId + 1];
+        double[] majorById = new double[maxId + 1];
+        Arrays.fill(currencyById, (byte) -1);
+        
+        for (int i = 0; i < items.size(); i++) {
+            int id = Item.getId(items.get(i));
+            CurrencyId currency = currencies.get(i);
+            currencyById[id] = (byte) currency.ordinal();
+            minorById[id] = values.get(i);
+            majorById[id] = (double) values.get(i) / currency.getMinorPerMajor();
+        }
+        
+        // Per-currency tables sorted by value, largest first
+        CurrencyTable[] tables = new CurrencyTable[CurrencyId.count()];
+        for (int ordinal = 0; ordinal < tables.length; ordinal++) {
+            List<Integer> members = new ArrayList<>();
+            for (int i = 0; i < items.size(); i++) {
+                if (currencies.get(i).ordinal() == ordinal) {
+                    members.add(i);
+                }
+            }
+            if (members.isEmpty()) continue;
+            
+            members.sort((a, b) -> Long.compare(values.get(b), values.get(a)));
+            Item[] tableItems = new Item[members.size()];
+            long[] tableValues = new long[members.size()];
+            for (int i = 0; i < members.size(); i++) {
+                tableItems[i] = items.get(members.get(i));
+                tableValues[i] = values.get(members.get(i));
+            }
+            tables[ordinal] = new CurrencyTable(CurrencyId.byOrdinal(ordinal), tableItems, tableValues);
+        }
+        
+        // Hash of the (id, currency, value) triples in id order, equal tables on both sides hash equal
+        int hash = 1;
+        for (int id = 0; id < currencyById.length; id++) {
+            if (currencyById[id] < 0) continue;
+            hash = 31 * hash + id;
+            hash = 31 * hash + currencyById[id];
+            hash = 31 * hash + Long.hashCode(minorById[id]);
+        }
+        
+        return new Index(currencyById, minorById, majorById, tables, items.size(), hash);
+    }
+    
+    private static Index index() {
+        Index current = index;
+        if (current == null) {
+            rebuild();
+            current = index;
+        }
+        return current;
+    }
+    
+    /**
+     * Raw id of an item inside the index, or -1 when it is not a denomination
+     */
+    private static int slotOf(Index current, Item item) {
+        if (item == null) return -1;
+        
+        int id = Item.getId(item);
+        return id >= 0 && id < current.currencyById.length && current.currencyById[id] >= 0 ? id : -1;
+    }
+    
+    /**
+     * Check if an item is a known denomination
+     */
+    public static boolean isDenomination(Item item) {
+        return slotOf(index(), item) >= 0;
+    }
+    
+    /**
+     * Get the currency of a denomination item, or null when it is not one
+     */
+    public static CurrencyId getCurrency(Item item) {
+        Index current = index();
+        int id = slotOf(current, item);
+        return id >= 0 ? CurrencyId.byOrdinal(current.currencyById[id]) : null;
+    }
+    
+    /**
+     * Get the value of a denomination item in minor units of its own currency
+     */
+    public static long getMinorUnits(Item item) {
+        Index current = index();
+        int id = slotOf(current, item);
+        return id >= 0 ? current.minorById[id] : 0L;
+    }
+    
+    /**
+     * Get the value of a denomination item in minor units, or 0 when it belongs to another currency
+     */
+    public static long getMinorUnits(Item item, CurrencyId currency) {
+        Index current = index();
+        int id = slotOf(current, item);
+        return id >= 0 && currency != null && current.currencyById[id] == currency.ordinal() ? current.minorById[id] : 0L;
+    }
+    
+    /**
+     * Get the face value of a denomination item in its own currency
+     */
+    public static double getValue(Item item) {
+        Index current = index();
+        int id = slotOf(current, item);
+        return id >= 0 ? current.majorById[id] : 0.0;
+    }
+    
+    /**
+     * Get the face value of a denomination item, or 0 when it belongs to another currency
+     */
+    public static double getValue(Item item, CurrencyId currency) {
+        Index current = index();
+        int id = slotOf(current, item);
+        return id >= 0 && currency != null && current.currencyById[id] == currency.ordinal() ? current.majorById[id] : 0.0;
+    }
+    
+    /**
+     * Get the denominations of a currency sorted largest first, or null when none are registered
+     */
+    public static CurrencyTable getTable(CurrencyId currency) {
+        return currency != null ? index().tables[currency.ordinal()] : null;
+    }
+    
+    /**
+     * Number of denominations resolved against the registry
+     */
+    public static int size() {
+        return index().size;
+    }
+    
+    /**
+     * Hash of the current table, lets a client skip the full table sync when it already matches the server
+     */
+    public static int getTableHash() {
+        return index().hash;
+    }
+    
+    /**
+     * Visit every denomination of the current table as (raw item id, currency, minor units), in id order
+     */
+    public static void forEachEntry(EntryConsumer consumer) {
+        Index current = index();
+        for (int id = 0; id < current.currencyById.length; id++) {
+            if (current.currencyById[id] >= 0) {
+                consumer.accept(id, CurrencyId.byOrdinal(current.currencyById[id]), current.minorById[id]);
+            }
+        }
+    }
+    
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int itemId, CurrencyId currency, long minorUnits);
+    }
+    
+    private static final class Definition {
+        final CurrencyId currency;
+        final String path;
+        final long minorUnits;
+        
+        Definition(CurrencyId currency, String path, long minorUnits) {
+            this.currency = currency;
+            this.path = path;
+            this.minorUnits = minorUnits;
+        }
+    }
+    
+    private static final class Index {
+        final byte[] currencyById;
+        final long[] minorById;
+        final double[] majorById;
+        final CurrencyTable[] tables;
+        final int size;
+        final int hash;
+        
+        Index(byte[] currencyById, long[] minorById, double[] majorById, CurrencyTable[] tables, int size, int hash) {
+            this.currencyById = currencyById;
+            this.minorById = minorById;
+            this.majorById = majorById;
+            this.tables = tables;
+            this.size = size;
+            this.hash = hash;
+        }
+    }
+    
+    /**
+     * Denominations of one currency, largest first (arrays are shared, do not modify)
+     */
+    public static final class CurrencyTable {
+        private final CurrencyId currency;
+        private final Item[] items;
+        private final long[] minorUnits;
+        
+        CurrencyTable(CurrencyId currency, Item[] items, long[] minorUnits) {
+            this.currency = currency;
+            this.items = items;
+            this.minorUnits = minorUnits;
+        }
+        
+        public CurrencyId getCurrency() {
+            return currency;
+        }
+        
+        public int size() {
+            return items.length;
+        }
+        
+        public Item getItem(int index) {
+            return items[index];
+        }
+        
+        public long getMinorUnits(int index) {
+            return minorUnits[index];
+        }
+        
+        /**
+         * Value of the smallest denomination in minor units
+         */
+        public long getSmallest() {
+            return minorUnits[minorUnits.length - 1];
+        }
+    }
+}
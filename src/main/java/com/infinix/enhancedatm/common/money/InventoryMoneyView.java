@@ -0,0 +1,190 @@
+package com.infinix.enhancedatm.common.money;
+
+import net.minecraft.world.Container;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Snapshot of the money of one currency a player can pay with, built in a single pass
+ * Entries are ATM grid slots first, then inventory slots, kept in primitive arrays and sorted once
+ * by denomination value (largest first, stable) so totals, removal plans and removal share one scan
+ */
+public final class InventoryMoneyView {
+    
+    private static final byte SOURCE_GRID = 0;
+    private static final byte SOURCE_INVENTORY = 1;
+    
+    private final CurrencyId currency;
+    private final Container[] containers;
+    private final byte[] source;
+    private final int[] slot;
+    private final Item[] item;
+    private final long[] unitValue;
+    private final int[] count;
+    private final int size;
+    private final long total;
+    
+    private InventoryMoneyView(CurrencyId currency, Container[] containers, byte[] source, int[] slot,
+                               Item[] item, long[] unitValue, int[] count, int size, long total) {
+        this.currency = currency;
+        this.containers = containers;
+        this.source = source;
+        this.slot = slot;
+        this.item = item;
+        this.unitValue = unitValue;
+        this.count = count;
+        this.size = size;
+        this.total = total;
+    }
+    
+    /**
+     * Scan the ATM grid (if given) and the player's inventory for money of a currency
+     */
+    public static InventoryMoneyView scan(Player player, Container grid, CurrencyId currency) {
+        Container inventory = player.getInventory();
+        int gridSize = grid != null ? grid.getContainerSize() : 0;
+        int capacity = gridSize + inventory.getContainerSize();
+        
+        byte[] source = new byte[capacity];
+        int[] slot = new int[capacity];
+        Item[] item = new Item[capacity];
+        long[] unitValue = new long[capacity];
+        int[] count = new int[capacity];
+        int size = 0;
+        long total = 0L;
+        
+        for (byte pass = SOURCE_GRID; pass <= SOURCE_INVENTORY; pass++) {
+            Container container = pass == SOURCE_GRID ? grid : inventory;
+            if (container == null) continue;
+            
+            for (int i = 0; i < container.getContainerSize(); i++) {
+                ItemStack stack = container.getItem(i);
+                if (stack.isEmpty()) continue;
+                
+                long value = DenominationRegistry.getMinorUnits(stack.getItem(), currency);
+                if (value <= 0) continue;
+                
+                // Insertion keeps the arrays sorted by value, equal values stay in scan order
+                int insertAt = size;
+                while (insertAt > 0 && unitValue[insertAt - 1] < value) {
+                    source[insertAt] = source[insertAt - 1];
+                    slot[insertAt] = slot[insertAt - 1];
+                    item[insertAt] = item[insertAt - 1];
+                    unitValue[insertAt] = unitValue[insertAt - 1];
+                    count[insertAt] = count[insertAt - 1];
+                    insertAt--;
+                }
+                
+                source[insertAt] = pass;
+                slot[insertAt] = i;
+                item[insertAt] = stack.getItem();
+                unitValue[insertAt] = value;
+                count[insertAt] = stack.getCount();
+                size++;
+                total += value * stack.getCount();
+            }
+        }
+        
+        return new InventoryMoneyView(currency, new Container[] { grid, inventory },
+            source, slot, item, unitValue, count, size, total);
+    }
+    
+    public CurrencyId getCurrency() {
+        return currency;
+    }
+    
+    /**
+     * Total value of all scanned money
+     */
+    public Money getTotal() {
+        return Money.ofMinor(total, currency);
+    }
+    
+    /**
+     * Plan how many items to take from each entry to pay an amount
+     * Takes whole denominations largest first without exceeding the amount, then covers any
+     * remainder with the single smallest denomination still available
+     * Returns null when the scanned money cannot cover the amount
+     */
+    public int[] plan(Money amount) {
+        if (amount.getCurrency() != currency) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + amount.getCurrency());
+        }
+        
+        int[] toRemove = new int[size];
+        long remaining = amount.getMinorUnits();
+        
+        for (int i = 0; i < size && remaining > 0; i++) {
+            toRemove[i] = (int) Math.min(count[i], remaining / unitValue[i]);
+            remaining -= toRemove[i] * unitValue[i];
+        }
+        
+        if (remaining > 0) {
+            // Every denomination with units left is worth more than the remainder, take the smallest one
+            for (int i = size - 1; i >= 0; i--) {
+                if (toRemove[i] < count[i]) {
+                    toRemove[i]++;
+                    remaining -= unitValue[i];
+                    break;
+                }
+            }
+        }
+        
+        return remaining > 0 ? null : toRemove;
+    }
+    
+    /**
+     * Value of a plan from {@link #plan(Money)}
+     */
+    public Money valueOf(int[] plan) {
+        long value = 0L;
+        for (int i = 0; i < size; i++) {
+            value += plan[i] * unitValue[i];
+        }
+        return Money.ofMinor(value, currency);
+    }
+    
+    /**
+     * Remove the planned items from their slots and return the value actually removed
+     * Slots whose contents changed since the scan are skipped and their plan entry is zeroed,
+     * so afterwards the plan describes exactly what was taken
+     */
+    public Money apply(int[] plan) {
+        long removed = 0L;
+        
+        for (int i = 0; i < size; i++) {
+            if (plan[i] == 0) continue;
+            
+            Container container = containers[source[i]];
+            ItemStack stack = container.getItem(slot[i]);
+            if (stack.getItem() != item[i] || stack.getCount() < plan[i]) {
+                System.err.println("Enhanced ATM: Slot " + slot[i] + " changed since scan, skipping");
+                plan[i] = 0;
+                continue;
+            }
+            
+            stack.shrink(plan[i]);
+            container.setChanged();
+            removed += plan[i] * unitValue[i];
+        }
+        
+        return Money.ofMinor(removed, currency);
+    }
+    
+    /**
+     * Item stacks of an applied plan, for handing the items back when an operation fails
+     */
+    public List<ItemStack> stacksOf(int[] plan) {
+        List<ItemStack> stacks = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (plan[i] > 0) {
+                stacks.add(new ItemStack(item[i], plan[i]));
+            }
+        }
+        return stacks;
+    }
+}
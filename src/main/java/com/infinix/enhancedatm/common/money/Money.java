@@ -0,0 +1,156 @@
+package com.infinix.enhancedatm.common.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Immutable fixed-point amount of a currency
+ * Amounts are held as a long count of minor units (cents, or whole yen/won), so sums and
+ * comparisons are exact; rounding only happens at explicit boundaries with an explicit RoundingMode
+ */
+public final class Money implements Comparable<Money> {
+    
+    /** Rounding used when converting between currencies, toward the bank so a round trip can never gain money */
+    public static final RoundingMode CONVERSION_ROUNDING = RoundingMode.DOWN;
+    
+    /** Rounding used for fees charged to the player, also toward the bank */
+    public static final RoundingMode FEE_ROUNDING = RoundingMode.UP;
+    
+    /** Rounding used when reading typed or stored decimal amounts */
+    public static final RoundingMode INPUT_ROUNDING = RoundingMode.HALF_UP;
+    
+    private final long minorUnits;
+    private final CurrencyId currency;
+    
+    private Money(long minorUnits, CurrencyId currency) {
+        if (currency == null) {
+            throw new IllegalArgumentException("Currency is required");
+        }
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+    
+    public static Money ofMinor(long minorUnits, CurrencyId currency) {
+        return new Money(minorUnits, currency);
+    }
+    
+    public static Money zero(CurrencyId currency) {
+        return new Money(0L, currency);
+    }
+    
+    /**
+     * Convert a decimal amount in major units (e.g. 12.5 EUR) to minor units
+     */
+    public static Money ofMajor(double amount, CurrencyId currency, RoundingMode rounding) {
+        if (Double.isNaN(amount) || Double.isInfinite(amount)) {
+            throw new IllegalArgumentException("Invalid amount: " + amount);
+        }
+        long minor = BigDecimal.valueOf(amount).setScale(currency.getScale(), rounding)
+            .movePointRight(currency.getScale()).longValueExact();
+        return new Money(minor, currency);
+    }
+    
+    /**
+     * Parse a typed amount such as "12.50"
+     */
+    public static Money parse(String text, CurrencyId currency) {
+        long minor = new BigDecimal(text.trim()).setScale(currency.getScale(), INPUT_ROUNDING)
+            .movePointRight(currency.getScale()).longValueExact();
+        return new Money(minor, currency);
+    }
+    
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+    
+    public CurrencyId getCurrency() {
+        return currency;
+    }
+    
+    public boolean isZero() {
+        return minorUnits == 0L;
+    }
+    
+    public boolean isPositive() {
+        return minorUnits > 0L;
+    }
+    
+    public boolean isNegative() {
+        return minorUnits < 0L;
+    }
+    
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+    
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+    
+    public Money times(long factor) {
+        return new Money(Math.multiplyExact(minorUnits, factor), currency);
+    }
+    
+    /**
+     * Convert to another currency at the given rate (target units per source unit)
+     */
+    public Money convert(double rate, CurrencyId target, RoundingMode rounding) {
+        if (target == currency && rate == 1.0) {
+            return this;
+        }
+        long minor = BigDecimal.valueOf(minorUnits).movePointLeft(currency.getScale())
+            .multiply(BigDecimal.valueOf(rate))
+            .setScale(target.getScale(), rounding)
+            .movePointRight(target.getScale())
+            .longValueExact();
+        return new Money(minor, target);
+    }
+    
+    /**
+     * Amount in major units, for display and for APIs that only take doubles
+     */
+    public double toMajor() {
+        return (double) minorUnits / currency.getMinorPerMajor();
+    }
+    
+    /**
+     * Amount without currency code, using the currency's decimal places (e.g. "12.50", "1000")
+     */
+    public String toPlainString() {
+        return BigDecimal.valueOf(minorUnits, currency.getScale()).toPlainString();
+    }
+    
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+    
+    private void requireSameCurrency(Money other) {
+        if (other.currency != currency) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+        }
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Money other)) return false;
+        return minorUnits == other.minorUnits && currency == other.currency;
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(minorUnits) + currency.hashCode();
+    }
+    
+    /**
+     * Display form, e.g. "12.50 EUR"
+     */
+    @Override
+    public String toString() {
+        return toPlainString() + " " + currency.getCode();
+    }
+}
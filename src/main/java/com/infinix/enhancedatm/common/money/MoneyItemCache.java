@@ -0,0 +1,60 @@
+package com.infinix.enhancedatm.common.money;
+
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.item.Item;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * Per-item money classification indexed by raw registry id
+ * Known denominations are answered from the DenominationRegistry; any other item
+ * runs the slow classifier once and the verdict is remembered until the next registry or datapack reload
+ */
+public final class MoneyItemCache {
+    
+    private static final byte UNKNOWN = 0;
+    private static final byte MONEY = 1;
+    private static final byte NOT_MONEY = 2;
+    
+    private static volatile byte[] states = new byte[0];
+    
+    private MoneyItemCache() {
+    }
+    
+    /**
+     * Check if an item is money, running the classifier only the first time the item is seen
+     */
+    public static boolean isMoney(Item item, Predicate<Item> classifier) {
+        int id = Item.getId(item);
+        if (id < 0) {
+            // Not registered, nothing to key the verdict on
+            return classifier.test(item);
+        }
+        
+        byte[] current = states;
+        if (id < current.length && current[id] != UNKNOWN) {
+            return current[id] == MONEY;
+        }
+        
+        boolean money = DenominationRegistry.isDenomination(item) || classifier.test(item);
+        store(id, money);
+        return money;
+    }
+    
+    private static synchronized void store(int id, boolean money) {
+        byte[] current = states;
+        if (id >= current.length) {
+            current = Arrays.copyOf(current, Math.max(id + 1, BuiltInRegistries.ITEM.size()));
+        }
+        current[id] = money ? MONEY : NOT_MONEY;
+        states = current;
+    }
+    
+    /**
+     * Forget every verdict (registry ids remapped or datapacks reloaded)
+     */
+    public static synchronized void invalidate() {
+        states = new byte[0];
+    }
+}
@@ -0,0 +1,103 @@
+package com.infinix.enhancedatm.common.money;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Immutable cross-rate matrix for all currencies, indexed by CurrencyId ordinal
+ * The current snapshot is published through a volatile reference and only rebuilt when the
+ * source rate map changes, so a caller holding one snapshot sees one consistent set of rates
+ */
+public final class RateSnapshot {
+    
+    private static volatile RateSnapshot current = identity();
+    
+    private final double[][] rates;
+    private final int sourceHash;
+    private final int sourceSize;
+    private final long version;
+    
+    private RateSnapshot(double[][] rates, int sourceHash, int sourceSize, long version) {
+        this.rates = rates;
+        this.sourceHash = sourceHash;
+        this.sourceSize = sourceSize;
+        this.version = version;
+    }
+    
+    /**
+     * Snapshot where every rate is 1.0, used until real rates are available
+     */
+    private static RateSnapshot identity() {
+        int count = CurrencyId.count();
+        double[][] rates = new double[count][count];
+        for (double[] row : rates) {
+            Arrays.fill(row, 1.0);
+        }
+        return new RateSnapshot(rates, 0, -1, 0L);
+    }
+    
+    /**
+     * Get the currently published snapshot
+     */
+    public static RateSnapshot current() {
+        return current;
+    }
+    
+    /**
+     * Rebuild the matrix from a map of per-EUR rates if it differs from the published one
+     * Returns the snapshot in effect afterwards
+     */
+    public static synchronized RateSnapshot refresh(Map<String, Double> eurRates) {
+        RateSnapshot snapshot = current;
+        if (eurRates == null) return snapshot;
+        
+        int hash = eurRates.hashCode();
+        if (hash == snapshot.sourceHash && eurRates.size() == snapshot.sourceSize) {
+            return snapshot;
+        }
+        
+        int count = CurrencyId.count();
+        double[] perEur = new double[count];
+        for (int i = 0; i < count; i++) {
+            Double rate = eurRates.get(CurrencyId.byOrdinal(i).getCode());
+            perEur[i] = rate != null && rate > 0.0 ? rate : Double.NaN;
+        }
+        
+        // Convert from -> EUR -> to, unknown currencies keep a 1.0 rate
+        double[][] rates = new double[count][count];
+        for (int from = 0; from < count; from++) {
+            for (int to = 0; to < count; to++) {
+                boolean known = !Double.isNaN(perEur[from]) && !Double.isNaN(perEur[to]);
+                rates[from][to] = from == to || !known ? 1.0 : perEur[to] / perEur[from];
+            }
+        }
+        
+        snapshot = new RateSnapshot(rates, hash, eurRates.size(), snapshot.version + 1);
+        current = snapshot;
+        System.out.println("Enhanced ATM: Exchange rate snapshot rebuilt (version " + snapshot.version + ")");
+        return snapshot;
+    }
+    
+    /**
+     * Rate to multiply an amount in one currency by to get the other currency
+     */
+    public double getRate(CurrencyId from, CurrencyId to) {
+        return rates[from.ordinal()][to.ordinal()];
+    }
+    
+    /**
+     * Convert an amount to another currency at this snapshot's rate
+     */
+    public Money convert(Money amount, CurrencyId target) {
+        if (amount.getCurrency() == target) return amount;
+        
+        return amount.convert(getRate(amount.getCurrency(), target), target, Money.CONVERSION_ROUNDING);
+    }
+    
+    /**
+     * Incremented every time a new matrix is published
+     */
+    public long getVersion() {
+        return version;
+    }
+}
@@ -5,6 +5,10 @@ import com.infinix.enhancedatm.common.network.packets.CurrencyExchangePacket;
 import com.infinix.enhancedatm.common.network.packets.DenominationExchangePacket;
 import com.infinix.enhancedatm.common.network.packets.DepositPacket;
 import com.infinix.enhancedatm.common.network.packets.DetectGridMoneyPacket;
+import com.infinix.enhancedatm.common.network.packets.GuiConfigDeltaPacket;
+import com.infinix.enhancedatm.common.network.packets.RequestDenominationTablePacket;
+import com.infinix.enhancedatm.common.network.packets.RequestGuiConfigPacket;
+import com.infinix.enhancedatm.common.network.packets.SyncDenominationTablePacket;
 import com.infinix.enhancedatm.common.network.packets.SyncGuiConfigPacket;
 import com.infinix.enhancedatm.common.network.packets.WithdrawPacket;
 import net.minecraft.resources.ResourceLocation;
@@ -17,7 +21,7 @@ import net.minecraftforge.network.simple.SimpleChannel;
  */
 public class NetworkHandler {
     
-    private static final String PROTOCOL_VERSION = "1";
+    private static final String PROTOCOL_VERSION = "4";
     
     public static final SimpleChannel INSTANCE = NetworkRegistry.newSimpleChannel(
         new ResourceLocation(EnhancedATMMod.MODID, "main"),
@@ -50,6 +54,18 @@ public class NetworkHandler {
             
         INSTANCE.registerMessage(nextId(), SyncGuiConfigPacket.class,
             SyncGuiConfigPacket::encode, SyncGuiConfigPacket::new, SyncGuiConfigPacket::handle);
+            
+        INSTANCE.registerMessage(nextId(), SyncDenominationTablePacket.class,
+            SyncDenominationTablePacket::encode, SyncDenominationTablePacket::decode, SyncDenominationTablePacket::handle);
+            
+        INSTANCE.registerMessage(nextId(), RequestDenominationTablePacket.class,
+            RequestDenominationTablePacket::encode, RequestDenominationTablePacket::decode, RequestDenominationTablePacket::handle);
+            
+        INSTANCE.registerMessage(nextId(), RequestGuiConfigPacket.class,
+            RequestGuiConfigPacket::encode, RequestGuiConfigPacket::decode, RequestGuiConfigPacket::handle);
+            
+        INSTANCE.registerMessage(nextId(), GuiConfigDeltaPacket.class,
+            GuiConfigDeltaPacket::encode, GuiConfigDeltaPacket::decode, GuiConfigDeltaPacket::handle);
     }
     
     private static int nextId() {
@@ -1,8 +1,11 @@
 package com.infinix.enhancedatm.common.network.packets;
 
+import com.infinix.enhancedatm.common.money.CurrencyId;
+import com.infinix.enhancedatm.common.money.Money;
 import com.infinix.enhancedatm.common.utils.BubusteinMoneyIntegration;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.item.ItemStack;
 import net.minecraftforge.network.NetworkEvent;
 
 import java.util.function.Supplier;
@@ -12,27 +15,25 @@ import java.util.function.Supplier;
  */
 public class CurrencyExchangePacket {
     
-    private final double amount;
-    private final String fromCurrency;
-    private final String toCurrency;
+    private final Money amount;          // Amount in the currency being exchanged from
+    private final CurrencyId toCurrency;
     
-    public CurrencyExchangePacket(double amount, String fromCurrency, String toCurrency) {
+    public CurrencyExchangePacket(Money amount, CurrencyId toCurrency) {
         this.amount = amount;
-        this.fromCurrency = fromCurrency;
         this.toCurrency = toCurrency;
     }
     
     public static void encode(CurrencyExchangePacket packet, FriendlyByteBuf buffer) {
-        buffer.writeDouble(packet.amount);
-        buffer.writeUtf(packet.fromCurrency);
-        buffer.writeUtf(packet.toCurrency);
+        buffer.writeEnum(packet.amount.getCurrency());
+        buffer.writeVarLong(packet.amount.getMinorUnits());
+        buffer.writeEnum(packet.toCurrency);
     }
     
     public static CurrencyExchangePacket decode(FriendlyByteBuf buffer) {
-        double amount = buffer.readDouble();
-        String fromCurrency = buffer.readUtf();
-        String toCurrency = buffer.readUtf();
-        return new CurrencyExchangePacket(amount, fromCurrency, toCurrency);
+        CurrencyId fromCurrency = buffer.readEnum(CurrencyId.class);
+        long minorUnits = buffer.readVarLong();
+        CurrencyId toCurrency = buffer.readEnum(CurrencyId.class);
+        return new CurrencyExchangePacket(Money.ofMinor(minorUnits, fromCurrency), toCurrency);
     }
     
     public static void handle(CurrencyExchangePacket packet, Supplier<NetworkEvent.Context> contextSupplier) {
@@ -40,18 +41,32 @@ public class CurrencyExchangePacket {
         context.enqueueWork(() -> {
             ServerPlayer player = context.getSender();
             if (player != null) {
-                // Execute currency exchange through BubusteinMoney integration  
-                BubusteinMoneyIntegration.executeCurrencyExchange(player, packet.amount, packet.fromCurrency, packet.toCurrency);
+                // Get the card from the ATM container slot
+                ItemStack cardStack = null;
+                if (player.containerMenu instanceof com.infinix.enhancedatm.common.container.EnhancedATMContainer) {
+                    com.infinix.enhancedatm.common.container.EnhancedATMContainer container = 
+                        (com.infinix.enhancedatm.common.container.EnhancedATMContainer) player.containerMenu;
+                    cardStack = container.getCardInSlot();
+                }
                 
-                // Add transaction to history
-                double exchangeRate = BubusteinMoneyIntegration.getExchangeRate(packet.fromCurrency, packet.toCurrency);
-                double convertedAmount = packet.amount * exchangeRate;
-                String details = String.format("%.2f %s → %.2f %s", 
-                    packet.amount, packet.fromCurrency, convertedAmount, packet.toCurrency);
+                if (cardStack == null || cardStack.isEmpty()) {
+                    player.sendSystemMessage(net.minecraft.network.chat.Component.literal(
+                        "§cNo card found in ATM slot!").withStyle(net.minecraft.ChatFormatting.RED));
+                    return;
+                }
+                
+                // Exchange directly on the card
+                Money convertedAmount = BubusteinMoneyIntegration.executeCurrencyExchange(
+                    player, cardStack, packet.amount, packet.toCurrency);
+                
+                if (convertedAmount != null) {
+                    // Add transaction to history
+                    String details = packet.amount + " → " + convertedAmount;
                     
-                com.infinix.enhancedatm.common.data.TransactionHistory.addTransaction(
-                    player, "exchange", packet.amount, packet.fromCurrency, details
-                );
+                    com.infinix.enhancedatm.common.data.TransactionHistory.addTransaction(
+                        player, "exchange", packet.amount, packet.amount.getCurrency().getCode(), details
+                    );
+                }
             }
         });
         context.setPacketHandled(true);
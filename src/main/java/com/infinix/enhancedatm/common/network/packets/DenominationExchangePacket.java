@@ -1,5 +1,11 @@
 package com.infinix.enhancedatm.common.network.packets;
 
+import com.infinix.enhancedatm.common.container.EnhancedATMContainer;
+import com.infinix.enhancedatm.common.data.WalletIndex;
+import com.infinix.enhancedatm.common.money.CurrencyId;
+import com.infinix.enhancedatm.common.money.DenominationRegistry;
+import com.infinix.enhancedatm.common.money.Money;
+import com.infinix.enhancedatm.common.money.RateSnapshot;
 import com.infinix.enhancedatm.common.utils.BubusteinMoneyIntegration;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.server.level.ServerPlayer;
@@ -7,7 +13,9 @@ import net.minecraft.world.item.ItemStack;
 import net.minecraftforge.network.NetworkEvent;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Supplier;
 
 /**
@@ -56,49 +64,72 @@ public class DenominationExchangePacket {
         NetworkEvent.Context context = contextSupplier.get();
         context.enqueueWork(() -> {
             ServerPlayer player = context.getSender();
-            if (player != null) {
-                // Calculate total value of selected denominations
-                double totalValue = 0.0;
+            // Exchanges are only offered by the ATM screen
+            if (player != null && player.containerMenu instanceof EnhancedATMContainer) {
+                CurrencyId targetCurrency = CurrencyId.fromCode(packet.targetCurrency);
+                if (targetCurrency == null) return;
+                
+                // Value of the removed denominations per currency, each total is converted once so
+                // rounding applies to the sum and not to every denomination
+                Map<CurrencyId, Money> currencyTotals = new EnumMap<>(CurrencyId.class);
                 List<String> denominationDetails = new ArrayList<>();
+                List<ItemStack> removedStacks = new ArrayList<>();
                 
                 for (ItemStack denomination : packet.selectedDenominations) {
-                    if (BubusteinMoneyIntegration.isMoneyItem(denomination.getItem())) {
-                        // Get the count of this denomination in player's inventory
-                        int count = BubusteinMoneyIntegration.getItemCountInInventory(player, denomination.getItem());
+                    CurrencyId denominationCurrency = DenominationRegistry.getCurrency(denomination.getItem());
+                    if (denominationCurrency != null) {
+                        // Remove the denomination items from player's inventory, only what was actually
+                        // removed is credited (a denomination listed twice finds nothing the second time)
+                        int count = player.getInventory().clearOrCountMatchingItems(
+                            stack -> stack.getItem() == denomination.getItem(), 
+                            player.getInventory().countItem(denomination.getItem()), 
+                            player.inventoryMenu.getCraftSlots()
+                        );
                         if (count > 0) {
                             // Get the value of this denomination
-                            double denominationValue = BubusteinMoneyIntegration.getDenominationValue(denomination);
-                            double denominationTotal = denominationValue * count;
-                            totalValue += denominationTotal;
+                            Money denominationValue = Money.ofMinor(DenominationRegistry.getMinorUnits(denomination.getItem()), denominationCurrency);
+                            currencyTotals.merge(denominationCurrency, denominationValue.times(count), Money::plus);
                             
                             // Add to details for transaction history
-                            denominationDetails.add(String.format("%dx %s (%.2f each)", 
+                            denominationDetails.add(String.format("%dx %s (%s each)", 
                                 count, denomination.getHoverName().getString(), denominationValue));
                             
-                            // Remove the denomination items from player's inventory
-                            player.getInventory().clearOrCountMatchingItems(
-                                stack -> stack.getItem() == denomination.getItem(), 
-                                count, 
-                                player.getInventory()
-                            );
+                            removedStacks.add(new ItemStack(denomination.getItem(), count));
+                            WalletIndex.flush(player);
                         }
                     }
                 }
                 
-                if (totalValue > 0) {
-                    // Execute denomination exchange through BubusteinMoney integration
-                    BubusteinMoneyIntegration.executeDenominationExchange(player, totalValue, packet.targetCurrency);
+                if (!removedStacks.isEmpty()) {
+                    // One rate snapshot for the whole exchange so every currency uses the same rates
+                    RateSnapshot rates = RateSnapshot.current();
+                    Money totalValue = Money.zero(targetCurrency);
+                    for (Money currencyTotal : currencyTotals.values()) {
+                        totalValue = totalValue.plus(rates.convert(currencyTotal, targetCurrency));
+                    }
+                    
+                    // Execute denomination exchange through BubusteinMoney integration, a total that
+                    // converts to nothing payable is refused as well
+                    Money paid = BubusteinMoneyIntegration.executeDenominationExchange(player, totalValue);
+                    if (paid == null) {
+                        // Refused, hand back what was taken
+                        for (ItemStack removed : removedStacks) {
+                            player.getInventory().placeItemBackInInventory(removed);
+                        }
+                        WalletIndex.flush(player);
+                        return;
+                    }
                     
                     // Add transaction to history
-                    String details = String.format("Batch exchange: %s → %.2f %s", 
-                        String.join(", ", denominationDetails), totalValue, packet.targetCurrency);
+                    String details = String.format("Batch exchange: %s → %s", 
+                        String.join(", ", denominationDetails), paid);
                         
                     com.infinix.enhancedatm.common.data.TransactionHistory.addTransaction(
-                        player, "denomination_exchange", totalValue, packet.targetCurrency, details
+                        player, "denomination_exchange", paid, paid.getCurrency().getCode(), details
                     );
                     
                     System.out.println("Enhanced ATM: Processed denomination exchange for " + player.getName().getString() + 
-                        " - Total value: " + totalValue + " " + packet.targetCurrency);
+                        " - Total value: " + totalValue + ", paid: " + paid);
                 }
             }
         });
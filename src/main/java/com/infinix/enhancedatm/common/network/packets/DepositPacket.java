@@ -1,5 +1,7 @@
 package com.infinix.enhancedatm.common.network.packets;
 
+import com.infinix.enhancedatm.common.money.CurrencyId;
+import com.infinix.enhancedatm.common.money.Money;
 import com.infinix.enhancedatm.common.utils.BubusteinMoneyIntegration;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.server.level.ServerPlayer;
@@ -12,27 +14,25 @@ import java.util.function.Supplier;
  */
 public class DepositPacket {
     
-    private final double amount;
-    private final String sourceCurrency;
-    private final String targetCurrency;
+    private final Money amount;              // Amount in the source (physical money) currency
+    private final CurrencyId targetCurrency; // Currency credited to the card
     
-    public DepositPacket(double amount, String sourceCurrency, String targetCurrency) {
+    public DepositPacket(Money amount, CurrencyId targetCurrency) {
         this.amount = amount;
-        this.sourceCurrency = sourceCurrency;
         this.targetCurrency = targetCurrency;
     }
     
     public static void encode(DepositPacket packet, FriendlyByteBuf buffer) {
-        buffer.writeDouble(packet.amount);
-        buffer.writeUtf(packet.sourceCurrency);
-        buffer.writeUtf(packet.targetCurrency);
+        buffer.writeEnum(packet.amount.getCurrency());
+        buffer.writeVarLong(packet.amount.getMinorUnits());
+        buffer.writeEnum(packet.targetCurrency);
     }
     
     public static DepositPacket decode(FriendlyByteBuf buffer) {
-        double amount = buffer.readDouble();
-        String sourceCurrency = buffer.readUtf();
-        String targetCurrency = buffer.readUtf();
-        return new DepositPacket(amount, sourceCurrency, targetCurrency);
+        CurrencyId sourceCurrency = buffer.readEnum(CurrencyId.class);
+        long minorUnits = buffer.readVarLong();
+        CurrencyId targetCurrency = buffer.readEnum(CurrencyId.class);
+        return new DepositPacket(Money.ofMinor(minorUnits, sourceCurrency), targetCurrency);
     }
     
     public static void handle(DepositPacket packet, Supplier<NetworkEvent.Context> contextSupplier) {
@@ -49,12 +49,12 @@ public class DepositPacket {
                     
                     // Execute the physical deposit with currency conversion (source to target)
                     boolean success = BubusteinMoneyIntegration.executePhysicalDepositWithConversion(
-                        player, cardStack, packet.amount, packet.sourceCurrency, packet.targetCurrency);
+                        player, cardStack, packet.amount, packet.targetCurrency);
                     
                     if (success) {
                         // Add transaction to history
                         com.infinix.enhancedatm.common.data.TransactionHistory.addTransaction(
-                            player, "deposit", packet.amount, packet.sourceCurrency + " -> " + packet.targetCurrency, 
+                            player, "deposit", packet.amount, packet.amount.getCurrency() + " -> " + packet.targetCurrency, 
                             "ATM Physical Deposit with Conversion"
                         );
                     }
@@ -0,0 +1,121 @@
+package com.infinix.enhancedatm.common.network.packets;
+
+import com.infinix.enhancedatm.common.config.ATMGuiConfig;
+import com.infinix.enhancedatm.common.config.GuiConfigCache;
+import com.infinix.enhancedatm.common.config.GuiConfigCodec;
+import com.infinix.enhancedatm.common.network.NetworkHandler;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraftforge.network.NetworkEvent;
+import net.minecraftforge.network.PacketDistributor;
+
+import java.util.function.Supplier;
+
+/**
+ * Packet broadcast after a GUI configuration reload, listing only the fields that changed
+ * Clients still on the previous version patch their copy and update only the affected widgets,
+ * any other client (or a patch that does not reproduce the new hash) falls back to a full request
+ */
+public class GuiConfigDeltaPacket {
+    
+    private final long baseHash;
+    private final long newHash;
+    private final int[] indices;
+    private final int[] values;
+    
+    public GuiConfigDeltaPacket(long baseHash, long newHash, int[] indices, int[] values) {
+        this.baseHash = baseHash;
+        this.newHash = newHash;
+        this.indices = indices;
+        this.values = values;
+    }
+    
+    /**
+     * Delta from a previous version of the configuration to the current one, or null if nothing changed
+     */
+    public static GuiConfigDeltaPacket since(int[] baseFields, long baseHash) {
+        int[] fields = GuiConfigCodec.currentFields();
+        int[] indices = GuiConfigCodec.diff(baseFields, fields);
+        if (indices.length == 0) {
+            return null;
+        }
+        
+        int[] values = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            values[i] = fields[indices[i]];
+        }
+        return new GuiConfigDeltaPacket(baseHash, GuiConfigCodec.currentHash(), indices, values);
+    }
+    
+    /**
+     * Broadcast the fields that changed since the given version to every connected player
+     * The delta is encoded once for all players, nothing is sent when no field changed
+     */
+    public static void broadcastSince(int[] baseFields, long baseHash) {
+        GuiConfigDeltaPacket delta = since(baseFields, baseHash);
+        if (delta != null) {
+            NetworkHandler.INSTANCE.send(PacketDistributor.ALL.noArg(), delta);
+        }
+    }
+    
+    public static void encode(GuiConfigDeltaPacket packet, FriendlyByteBuf buffer) {
+        buffer.writeLong(packet.baseHash);
+        buffer.writeLong(packet.newHash);
+        buffer.writeVarInt(packet.indices.length);
+        for (int i = 0; i < packet.indices.length; i++) {
+            buffer.writeByte(packet.indices[i]);
+            buffer.writeVarInt(packet.values[i]);
+        }
+    }
+    
+    public static GuiConfigDeltaPacket decode(FriendlyByteBuf buffer) {
+        long baseHash = buffer.readLong();
+        long newHash = buffer.readLong();
+        int count = Math.min(buffer.readVarInt(), GuiConfigCodec.FIELD_COUNT);
+        int[] indices = new int[count];
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            indices[i] = buffer.readUnsignedByte();
+            values[i] = buffer.readVarInt();
+        }
+        return new GuiConfigDeltaPacket(baseHash, newHash, indices, values);
+    }
+    
+    public static void handle(GuiConfigDeltaPacket packet, Supplier<NetworkEvent.Context> contextSupplier) {
+        NetworkEvent.Context context = contextSupplier.get();
+        if (context.getDirection().getReceptionSide().isClient()) {
+            context.enqueueWork(() -> packet.apply());
+        }
+        context.setPacketHandled(true);
+    }
+    
+    private void apply() {
+        long currentHash = GuiConfigCodec.currentHash();
+        // Already showing the new version (always the case in singleplayer)
+        if (currentHash == newHash) {
+            return;
+        }
+        if (currentHash != baseHash) {
+            NetworkHandler.INSTANCE.sendToServer(new RequestGuiConfigPacket());
+            return;
+        }
+        
+        int[] fields = GuiConfigCodec.currentFields();
+        long changedFields = 0L;
+        for (int i = 0; i < indices.length; i++) {
+            if (indices[i] >= GuiConfigCodec.FIELD_COUNT) continue;
+            fields[indices[i]] = values[i];
+            changedFields |= 1L << indices[i];
+        }
+        
+        byte[] data = GuiConfigCodec.encode(GuiConfigCodec.unflatten(fields));
+        if (GuiConfigCodec.hash(data) != newHash || !ATMGuiConfig.updateFromBinary(data)) {
+            System.err.println("Enhanced ATM: GUI configuration delta did not apply cleanly, requesting full configuration");
+            NetworkHandler.INSTANCE.sendToServer(new RequestGuiConfigPacket());
+            return;
+        }
+        
+        GuiConfigCache.store(newHash, data);
+        System.out.println("Enhanced ATM: Applied " + indices.length + " changed GUI configuration fields from server");
+        SyncGuiConfigPacket.updateOpenATMScreens(changedFields);
+    }
+}
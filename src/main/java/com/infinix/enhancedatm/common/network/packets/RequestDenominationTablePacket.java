@@ -0,0 +1,34 @@
+package com.infinix.enhancedatm.common.network.packets;
+
+import com.infinix.enhancedatm.common.network.NetworkHandler;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.network.NetworkEvent;
+import net.minecraftforge.network.PacketDistributor;
+
+import java.util.function.Supplier;
+
+/**
+ * Packet sent by a client whose denomination table does not match the server's hash
+ * The server answers with its full table
+ */
+public class RequestDenominationTablePacket {
+    
+    public static void encode(RequestDenominationTablePacket packet, FriendlyByteBuf buffer) {
+    }
+    
+    public static RequestDenominationTablePacket decode(FriendlyByteBuf buffer) {
+        return new RequestDenominationTablePacket();
+    }
+    
+    public static void handle(RequestDenominationTablePacket packet, Supplier<NetworkEvent.Context> contextSupplier) {
+        NetworkEvent.Context context = contextSupplier.get();
+        context.enqueueWork(() -> {
+            ServerPlayer player = context.getSender();
+            if (player != null) {
+                NetworkHandler.INSTANCE.send(PacketDistributor.PLAYER.with(() -> player), SyncDenominationTablePacket.full());
+            }
+        });
+        context.setPacketHandled(true);
+    }
+}
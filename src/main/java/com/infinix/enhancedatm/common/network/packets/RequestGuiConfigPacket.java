@@ -0,0 +1,34 @@
+package com.infinix.enhancedatm.common.network.packets;
+
+import com.infinix.enhancedatm.common.network.NetworkHandler;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.network.NetworkEvent;
+import net.minecraftforge.network.PacketDistributor;
+
+import java.util.function.Supplier;
+
+/**
+ * Packet sent by a client that has no cached copy of the announced GUI configuration
+ * The server answers with the full binary encoding
+ */
+public class RequestGuiConfigPacket {
+    
+    public static void encode(RequestGuiConfigPacket packet, FriendlyByteBuf buffer) {
+    }
+    
+    public static RequestGuiConfigPacket decode(FriendlyByteBuf buffer) {
+        return new RequestGuiConfigPacket();
+    }
+    
+    public static void handle(RequestGuiConfigPacket packet, Supplier<NetworkEvent.Context> contextSupplier) {
+        NetworkEvent.Context context = contextSupplier.get();
+        context.enqueueWork(() -> {
+            ServerPlayer player = context.getSender();
+            if (player != null) {
+                NetworkHandler.INSTANCE.send(PacketDistributor.PLAYER.with(() -> player), SyncGuiConfigPacket.full());
+            }
+        });
+        context.setPacketHandled(true);
+    }
+}
@@ -0,0 +1,106 @@
+package com.infinix.enhancedatm.common.network.packets;
+
+import com.infinix.enhancedatm.common.money.DenominationRegistry;
+import com.infinix.enhancedatm.common.money.MoneyItemCache;
+import com.infinix.enhancedatm.common.network.NetworkHandler;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.function.Supplier;
+
+/**
+ * Packet carrying the server's denomination table to a client
+ * Sent at login with only the table hash; a client whose own table hashes differently asks for
+ * the full table, which comes back as (raw item id, currency ordinal, minor units) triples
+ */
+public class SyncDenominationTablePacket {
+    
+    private final int hash;
+    // Null for a hash-only packet
+    private final int[] itemIds;
+    private final byte[] currencies;
+    private final long[] minorUnits;
+    
+    private SyncDenominationTablePacket(int hash, int[] itemIds, byte[] currencies, long[] minorUnits) {
+        this.hash = hash;
+        this.itemIds = itemIds;
+        this.currencies = currencies;
+        this.minorUnits = minorUnits;
+    }
+    
+    /**
+     * Packet with only the hash of the server's table
+     */
+    public static SyncDenominationTablePacket hashOnly() {
+        return new SyncDenominationTablePacket(DenominationRegistry.getTableHash(), null, null, null);
+    }
+    
+    /**
+     * Packet with the full table of the server
+     */
+    public static SyncDenominationTablePacket full() {
+        int size = DenominationRegistry.size();
+        int[] itemIds = new int[size];
+        byte[] currencies = new byte[size];
+        long[] minorUnits = new long[size];
+        int[] count = { 0 };
+        DenominationRegistry.forEachEntry((itemId, currency, value) -> {
+            if (count[0] >= size) return;
+            itemIds[count[0]] = itemId;
+            currencies[count[0]] = (byte) currency.ordinal();
+            minorUnits[count[0]] = value;
+            count[0]++;
+        });
+        return new SyncDenominationTablePacket(DenominationRegistry.getTableHash(), itemIds, currencies, minorUnits);
+    }
+    
+    public static void encode(SyncDenominationTablePacket packet, FriendlyByteBuf buffer) {
+        buffer.writeInt(packet.hash);
+        buffer.writeBoolean(packet.itemIds != null);
+        if (packet.itemIds == null) return;
+        
+        buffer.writeVarInt(packet.itemIds.length);
+        for (int i = 0; i < packet.itemIds.length; i++) {
+            buffer.writeVarInt(packet.itemIds[i]);
+            buffer.writeByte(packet.currencies[i]);
+            buffer.writeVarLong(packet.minorUnits[i]);
+        }
+    }
+    
+    public static SyncDenominationTablePacket decode(FriendlyByteBuf buffer) {
+        int hash = buffer.readInt();
+        if (!buffer.readBoolean()) {
+            return new SyncDenominationTablePacket(hash, null, null, null);
+        }
+        
+        int size = buffer.readVarInt();
+        int[] itemIds = new int[size];
+        byte[] currencies = new byte[size];
+        long[] minorUnits = new long[size];
+        for (int i = 0; i < size; i++) {
+            itemIds[i] = buffer.readVarInt();
+            currencies[i] = buffer.readByte();
+            minorUnits[i] = buffer.readVarLong();
+        }
+        return new SyncDenominationTablePacket(hash, itemIds, currencies, minorUnits);
+    }
+    
+    public static void handle(SyncDenominationTablePacket packet, Supplier<NetworkEvent.Context> contextSupplier) {
+        NetworkEvent.Context context = contextSupplier.get();
+        if (context.getDirection().getReceptionSide().isClient()) {
+            context.enqueueWork(() -> {
+                if (packet.itemIds == null) {
+                    // Only ask for the table when ours would value items differently
+                    if (DenominationRegistry.getTableHash() != packet.hash) {
+                        NetworkHandler.INSTANCE.sendToServer(new RequestDenominationTablePacket());
+                    }
+                    return;
+                }
+                
+                DenominationRegistry.applyServerTable(packet.itemIds, packet.currencies, packet.minorUnits);
+                MoneyItemCache.invalidate();
+            });
+        }
+        context.setPacketHandled(true);
+    }
+}
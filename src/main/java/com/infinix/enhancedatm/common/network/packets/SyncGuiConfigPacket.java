@@ -1,6 +1,9 @@
 package com.infinix.enhancedatm.common.network.packets;
 
 import com.infinix.enhancedatm.common.config.ATMGuiConfig;
+import com.infinix.enhancedatm.common.config.GuiConfigCache;
+import com.infinix.enhancedatm.common.config.GuiConfigCodec;
+import com.infinix.enhancedatm.common.network.NetworkHandler;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraftforge.network.NetworkEvent;
 
@@ -8,21 +11,45 @@ import java.util.function.Supplier;
 
 /**
  * Packet to sync GUI configuration from server to client
+ * Carries the 64-bit content hash of the configuration and, unless it is only an announcement,
+ * its binary encoding. Clients answer an announcement they cannot resolve from their disk cache
+ * with a RequestGuiConfigPacket
  */
 public class SyncGuiConfigPacket {
     
-    private final String configJson;
+    private final long hash;
+    private final byte[] data; // null for a hash-only announcement
     
-    public SyncGuiConfigPacket(String configJson) {
-        this.configJson = configJson;
+    public SyncGuiConfigPacket(long hash, byte[] data) {
+        this.hash = hash;
+        this.data = data;
     }
     
     public SyncGuiConfigPacket(FriendlyByteBuf buf) {
-        this.configJson = buf.readUtf();
+        this.hash = buf.readLong();
+        this.data = buf.readBoolean() ? buf.readByteArray() : null;
+    }
+    
+    /**
+     * Announce the current configuration by its hash only
+     */
+    public static SyncGuiConfigPacket announce() {
+        return new SyncGuiConfigPacket(GuiConfigCodec.currentHash(), null);
+    }
+    
+    /**
+     * Send the current configuration in full
+     */
+    public static SyncGuiConfigPacket full() {
+        return new SyncGuiConfigPacket(GuiConfigCodec.currentHash(), GuiConfigCodec.currentData());
     }
     
     public void encode(FriendlyByteBuf buf) {
-        buf.writeUtf(this.configJson);
+        buf.writeLong(this.hash);
+        buf.writeBoolean(this.data != null);
+        if (this.data != null) {
+            buf.writeByteArray(this.data);
+        }
     }
     
     public void handle(Supplier<NetworkEvent.Context> contextSupplier) {
@@ -30,20 +57,52 @@ public class SyncGuiConfigPacket {
         if (context.getDirection().getReceptionSide().isClient()) {
             context.enqueueWork(() -> {
                 // This runs on the client side
-                ATMGuiConfig.updateFromJson(this.configJson);
-                System.out.println("Enhanced ATM: Client received and applied GUI configuration from server");
-                
-                // Update any open ATM screens
-                updateOpenATMScreens();
+                if (this.data != null) {
+                    applyFull();
+                } else {
+                    applyAnnouncement();
+                }
             });
         }
         context.setPacketHandled(true);
     }
     
+    private void applyAnnouncement() {
+        // Already showing this version (always the case in singleplayer)
+        if (GuiConfigCodec.currentHash() == this.hash) {
+            return;
+        }
+        
+        byte[] cached = GuiConfigCache.load(this.hash);
+        if (cached != null && ATMGuiConfig.updateFromBinary(cached)) {
+            System.out.println("Enhanced ATM: Applied GUI configuration " + String.format("%016x", this.hash) + " from cache");
+            updateOpenATMScreens(GuiConfigCodec.ALL_FIELDS);
+            return;
+        }
+        
+        NetworkHandler.INSTANCE.sendToServer(new RequestGuiConfigPacket());
+    }
+    
+    private void applyFull() {
+        if (GuiConfigCodec.hash(this.data) != this.hash) {
+            System.err.println("Enhanced ATM: Received GUI configuration does not match its hash, ignoring");
+            return;
+        }
+        
+        if (ATMGuiConfig.updateFromBinary(this.data)) {
+            GuiConfigCache.store(this.hash, this.data);
+            System.out.println("Enhanced ATM: Client received and applied GUI configuration from server");
+            
+            // Update any open ATM screens
+            updateOpenATMScreens(GuiConfigCodec.ALL_FIELDS);
+        }
+    }
+    
     /**
      * Update any currently open ATM screens with new configuration
+     * Only the widgets and slots covered by the changed-field mask are touched
      */
-    private void updateOpenATMScreens() {
+    static void updateOpenATMScreens(long changedFields) {
         try {
             System.out.println("Enhanced ATM: Checking for open ATM screens to update...");
             net.minecraft.client.Minecraft minecraft = net.minecraft.client.Minecraft.getInstance();
@@ -53,7 +112,7 @@ public class SyncGuiConfigPacket {
                 System.out.println("Enhanced ATM: Found open ATM screen, updating configuration...");
                 
                 // SOLO actualizar configuración - sin cerrar pantalla
-                atmScreen.updateGuiConfiguration();
+                atmScreen.updateGuiConfiguration(changedFields);
                 System.out.println("Enhanced ATM: Configuration sync completed");
                 
                 // ELIMINADO: No cerrar ni reabrir pantalla - causa bucles infinitos
@@ -1,5 +1,7 @@
 package com.infinix.enhancedatm.common.network.packets;
 
+import com.infinix.enhancedatm.common.money.CurrencyId;
+import com.infinix.enhancedatm.common.money.Money;
 import com.infinix.enhancedatm.common.utils.BubusteinMoneyIntegration;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.server.level.ServerPlayer;
@@ -13,27 +15,25 @@ import java.util.function.Supplier;
  */
 public class WithdrawPacket {
     
-    private final double amount;
-    private final String sourceCurrency; // Currency of the card
-    private final String targetCurrency; // Currency for physical withdrawal
+    private final Money amount;              // Amount in the currency of the card
+    private final CurrencyId targetCurrency; // Currency for physical withdrawal
     
-    public WithdrawPacket(double amount, String sourceCurrency, String targetCurrency) {
+    public WithdrawPacket(Money amount, CurrencyId targetCurrency) {
         this.amount = amount;
-        this.sourceCurrency = sourceCurrency;
         this.targetCurrency = targetCurrency;
     }
     
     public static void encode(WithdrawPacket packet, FriendlyByteBuf buffer) {
-        buffer.writeDouble(packet.amount);
-        buffer.writeUtf(packet.sourceCurrency);
-        buffer.writeUtf(packet.targetCurrency);
+        buffer.writeEnum(packet.amount.getCurrency());
+        buffer.writeVarLong(packet.amount.getMinorUnits());
+        buffer.writeEnum(packet.targetCurrency);
     }
     
     public static WithdrawPacket decode(FriendlyByteBuf buffer) {
-        double amount = buffer.readDouble();
-        String sourceCurrency = buffer.readUtf();
-        String targetCurrency = buffer.readUtf();
-        return new WithdrawPacket(amount, sourceCurrency, targetCurrency);
+        CurrencyId sourceCurrency = buffer.readEnum(CurrencyId.class);
+        long minorUnits = buffer.readVarLong();
+        CurrencyId targetCurrency = buffer.readEnum(CurrencyId.class);
+        return new WithdrawPacket(Money.ofMinor(minorUnits, sourceCurrency), targetCurrency);
     }
     
     public static void handle(WithdrawPacket packet, Supplier<NetworkEvent.Context> contextSupplier) {
@@ -51,13 +51,13 @@ public class WithdrawPacket {
                 
                 if (cardStack != null && !cardStack.isEmpty()) {
                     // Try to withdraw money from card with currency conversion
-                    boolean success = BubusteinMoneyIntegration.withdrawMoneyFromCardWithConversion(
-                        player, cardStack, packet.amount, packet.sourceCurrency, packet.targetCurrency);
+                    Money withdrawn = BubusteinMoneyIntegration.withdrawMoneyFromCardWithConversion(
+                        player, cardStack, packet.amount, packet.targetCurrency);
                     
-                    if (success) {
+                    if (withdrawn != null) {
                         // Add transaction to history
                         com.infinix.enhancedatm.common.data.TransactionHistory.addTransaction(
-                            player, "withdraw", packet.amount, packet.sourceCurrency + " -> " + packet.targetCurrency, 
+                            player, "withdraw", withdrawn, packet.amount.getCurrency() + " -> " + packet.targetCurrency, 
                             "ATM Withdrawal with Conversion"
                         );
                     }
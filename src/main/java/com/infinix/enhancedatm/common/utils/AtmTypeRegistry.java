@@ -0,0 +1,122 @@
+package com.infinix.enhancedatm.common.utils;
+
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.block.Block;
+import net.minecraftforge.registries.ForgeRegistries;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Identity sets of the BubusteinMoney ATM blocks, key items and card items
+ * The classes are looked up and every registered block and item classified once, so a
+ * detection check is a single identity hash lookup with no class lookup or string building
+ */
+public final class AtmTypeRegistry {
+    
+    private static final String ATM_BLOCK_CLASS = "tk.bubustein.money.block.custom.ATM";
+    private static final String KEY_ITEM_CLASS = "tk.bubustein.money.item.KeyItem";
+    private static final String CARD_ITEM_CLASS = "tk.bubustein.money.item.CardItem";
+    
+    private static volatile Index index;
+    
+    private static final class Index {
+        final Set<Block> atmBlocks;
+        final Set<Item> keyItems;
+        final Set<Item> cardItems;
+        
+        Index(Set<Block> atmBlocks, Set<Item> keyItems, Set<Item> cardItems) {
+            this.atmBlocks = atmBlocks;
+            this.keyItems = keyItems;
+            this.cardItems = cardItems;
+        }
+    }
+    
+    private AtmTypeRegistry() {
+    }
+    
+    /**
+     * Classify every registered block and item, called once registries are frozen
+     * When BubusteinMoney classes cannot be loaded, blocks and items are matched by class name instead
+     */
+    public static synchronized void rebuild() {
+        Class<?> atmClass = findClass(ATM_BLOCK_CLASS);
+        Class<?> keyClass = findClass(KEY_ITEM_CLASS);
+        Class<?> cardClass = findClass(CARD_ITEM_CLASS);
+        
+        Set<Block> atmBlocks = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Block block : ForgeRegistries.BLOCKS) {
+            if (matches(block, atmClass, "ATM")) {
+                atmBlocks.add(block);
+            }
+        }
+        
+        Set<Item> keyItems = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Item> cardItems = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Item item : ForgeRegistries.ITEMS) {
+            if (matches(item, keyClass, "KeyItem")) {
+                keyItems.add(item);
+            }
+            if (matches(item, cardClass, "CardItem")) {
+                cardItems.add(item);
+            }
+        }
+        
+        index = new Index(atmBlocks, keyItems, cardItems);
+        System.out.println("Enhanced ATM: ATM type registry built with " + atmBlocks.size() + " ATM block(s), " + 
+            keyItems.size() + " key item(s) and " + cardItems.size() + " card item(s)" + 
+            (atmClass == null ? " (matched by class name)" : ""));
+    }
+    
+    private static Index index() {
+        Index current = index;
+        if (current == null) {
+            rebuild();
+            current = index;
+        }
+        return current;
+    }
+    
+    private static Class<?> findClass(String className) {
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            System.err.println("Enhanced ATM: BubusteinMoney class " + className + " not found - mod not loaded?");
+            return null;
+        }
+    }
+    
+    /**
+     * Instance check against the resolved class, or the old class name check when it is missing
+     */
+    private static boolean matches(Object entry, Class<?> resolvedClass, String nameFragment) {
+        if (resolvedClass != null) {
+            return resolvedClass.isInstance(entry);
+        }
+        String className = entry.getClass().getName();
+        return className.contains(nameFragment) && className.contains("bubustein");
+    }
+    
+    /**
+     * Check if a block is a BubusteinMoney ATM
+     */
+    public static boolean isAtm(Block block) {
+        return index().atmBlocks.contains(block);
+    }
+    
+    /**
+     * Check if an item stack is a BubusteinMoney ATM key
+     */
+    public static boolean isKey(ItemStack stack) {
+        return !stack.isEmpty() && index().keyItems.contains(stack.getItem());
+    }
+    
+    /**
+     * Check if an item stack is a BubusteinMoney card
+     */
+    public static boolean isCard(ItemStack stack) {
+        return !stack.isEmpty() && index().cardItems.contains(stack.getItem());
+    }
+}
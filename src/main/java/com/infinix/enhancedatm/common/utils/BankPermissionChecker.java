@@ -1,14 +1,29 @@
 package com.infinix.enhancedatm.common.utils;
 
+import com.infinix.enhancedatm.common.blocks.BankPermissionBlockEntity;
 import com.infinix.enhancedatm.common.blocks.ModBlocks;
 import com.infinix.enhancedatm.common.config.Config;
+import com.infinix.enhancedatm.common.data.BankPermissionIndex;
+import com.infinix.enhancedatm.common.data.BankZoneData;
+import com.infinix.enhancedatm.common.data.PermissionVerdictCache;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Utility class to check for Bank Permission Block near ATMs
- * Provides range-based verification for ATM access control
+ * Provides range-based verification for ATM access control, answered from the per-dimension BankPermissionIndex
  * 
  * @author InfinixMC
  * @version 1.0.0
@@ -28,29 +43,23 @@ public class BankPermissionChecker {
             return true;
         }
         
-        int range = Config.BANK_PERMISSION_RANGE.get();
-        Block permissionBlock = ModBlocks.BANK_PERMISSION_BLOCK.get();
+        // Permission is decided on the server, which owns the index
+        if (!(level instanceof ServerLevel serverLevel)) {
+            return true;
+        }
         
-        // Check all blocks in a cube around the ATM
-        for (int x = -range; x <= range; x++) {
-            for (int y = -range; y <= range; y++) {
-                for (int z = -range; z <= range; z++) {
-                    BlockPos checkPos = atmPos.offset(x, y, z);
-                    
-                    // Check if this position contains a Bank Permission Block
-                    if (level.getBlockState(checkPos).getBlock() == permissionBlock) {
-                        return true;
-                    }
-                }
-            }
+        int range = Config.BANK_PERMISSION_RANGE.get();
+        BankPermissionIndex index = BankPermissionIndex.get(serverLevel);
+        if (index.hasCoveringCube(atmPos, range)) {
+            return true;
         }
         
-        return false;
+        // Blocks placed before the index existed are only found by scanning
+        return !index.isComplete() && scanAndIndex(serverLevel, index, atmPos, range) > 0 && index.hasCoveringCube(atmPos, range);
     }
     
     /**
      * Check if there is a Bank Permission Block within range using spherical distance
-     * This is more efficient than cubic check for large ranges
      * 
      * @param level The world/level to check in
      * @param atmPos The position of the ATM
@@ -62,71 +71,200 @@ public class BankPermissionChecker {
             return true;
         }
         
-        int range = Config.BANK_PERMISSION_RANGE.get();
-        int rangeSq = range * range; // Square of the range for distance comparison
-        Block permissionBlock = ModBlocks.BANK_PERMISSION_BLOCK.get();
+        // Permission is decided on the server, which owns the index
+        if (!(level instanceof ServerLevel)) {
+            return true;
+        }
         
-        // Check all blocks in a cube around the ATM, but only accept those within spherical distance
-        for (int x = -range; x <= range; x++) {
-            for (int y = -range; y <= range; y++) {
-                for (int z = -range; z <= range; z++) {
-                    // Calculate squared distance (avoids sqrt calculation)
-                    int distSq = x * x + y * y + z * z;
-                    
-                    // Only check blocks within spherical range
-                    if (distSq <= rangeSq) {
-                        BlockPos checkPos = atmPos.offset(x, y, z);
-                        
-                        // Check if this position contains a Bank Permission Block
-                        if (level.getBlockState(checkPos).getBlock() == permissionBlock) {
-                            return true;
-                        }
-                    }
-                }
-            }
+        return getNearestPermissionBlock(level, atmPos) != null;
+    }
+    
+    /**
+     * Check whether an ATM may be used: it lies in a bank zone or a Bank Permission Block reaches it
+     * 
+     * @param level The world/level to check in
+     * @param atmPos The position of the ATM
+     * @return true if the ATM may be used, false otherwise
+     */
+    public static boolean isAtmPermitted(Level level, BlockPos atmPos) {
+        if (!Config.ENABLE_BANK_PERMISSION_SYSTEM.get() || !(level instanceof ServerLevel serverLevel)) {
+            return true;
         }
         
-        return false;
+        // ATMs inside an admin-defined bank zone are governed by it, no permission block needed
+        return BankZoneData.get(serverLevel).resolve(atmPos) != null || hasPermissionNearbySphere(level, atmPos);
     }
     
     /**
-     * Get the nearest Bank Permission Block position within range
+     * Get the nearest Bank Permission Block whose radius reaches the ATM
      * 
      * @param level The world/level to check in
      * @param atmPos The position of the ATM
      * @return The position of the nearest Bank Permission Block, or null if none found
      */
     public static BlockPos getNearestPermissionBlock(Level level, BlockPos atmPos) {
-        if (!Config.ENABLE_BANK_PERMISSION_SYSTEM.get()) {
+        if (!Config.ENABLE_BANK_PERMISSION_SYSTEM.get() || !(level instanceof ServerLevel serverLevel)) {
             return null;
         }
         
         int range = Config.BANK_PERMISSION_RANGE.get();
-        Block permissionBlock = ModBlocks.BANK_PERMISSION_BLOCK.get();
+        BankPermissionIndex index = BankPermissionIndex.get(serverLevel);
+        PermissionVerdictCache verdicts = index.getVerdicts();
+        
+        PermissionVerdictCache.Verdict verdict = verdicts.get(atmPos, range);
+        if (verdict != null) {
+            return verdict.getNearest();
+        }
+        
+        BankPermissionIndex.Entry nearest = index.findCovering(atmPos, range);
+        
+        if (nearest == null && !index.isComplete() && scanAndIndex(serverLevel, index, atmPos, range) > 0) {
+            // Blocks placed before the index existed are only found by scanning
+            nearest = index.findCovering(atmPos, range);
+        }
+        BlockPos nearestPos = nearest != null ? nearest.getPos() : null;
+        
+        // A denial on a legacy world may be lifted by a block in a chunk not loaded yet, so only cache it once complete
+        if (nearestPos != null || index.isComplete()) {
+            verdicts.put(atmPos, nearestPos);
+        }
+        
+        return nearestPos;
+    }
+    
+    /**
+     * Get the Bank Permission Block serving the ATM the player has open, or null if none does
+     */
+    public static BankPermissionIndex.Entry forOpenAtm(ServerPlayer player) {
+        if (!Config.ENABLE_BANK_PERMISSION_SYSTEM.get()) {
+            return null;
+        }
+        if (player.containerMenu instanceof com.infinix.enhancedatm.common.container.EnhancedATMContainer atmContainer) {
+            BlockPos atmPos = atmContainer.getATMPosition();
+            BlockPos nearestPos = atmPos != null ? getNearestPermissionBlock(player.serverLevel(), atmPos) : null;
+            if (nearestPos != null) {
+                return BankPermissionIndex.get(player.serverLevel()).getEntry(nearestPos);
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Scan the world around a position for permission blocks missing from the index and record them
+     * Legacy blocks have no stored radius and cover the default range, so that is all the scan needs to reach
+     * 
+     * @return The number of blocks found
+     */
+    private static int scanAndIndex(ServerLevel level, BankPermissionIndex index, BlockPos atmPos, int range) {
+        List<BlockPos> found = new ArrayList<>();
+        scanLoadedSections(level,
+            atmPos.getX() - range, atmPos.getY() - range, atmPos.getZ() - range,
+            atmPos.getX() + range, atmPos.getY() + range, atmPos.getZ() + range,
+            found);
         
-        BlockPos nearestPos = null;
-        double nearestDistSq = Double.MAX_VALUE;
+        for (BlockPos pos : found) {
+            indexBlock(level, index, pos);
+        }
         
-        // Check all blocks in a cube around the ATM
-        for (int x = -range; x <= range; x++) {
-            for (int y = -range; y <= range; y++) {
-                for (int z = -range; z <= range; z++) {
-                    BlockPos checkPos = atmPos.offset(x, y, z);
+        if (!found.isEmpty()) {
+            System.out.println("Enhanced ATM: Indexed " + found.size() + " legacy Bank Permission Block(s) near " + atmPos);
+        }
+        return found.size();
+    }
+    
+    /**
+     * Record a permission block found in the world with the settings of its block entity
+     */
+    private static void indexBlock(ServerLevel level, BankPermissionIndex index, BlockPos pos) {
+        if (level.getBlockEntity(pos) instanceof BankPermissionBlockEntity blockEntity) {
+            index.add(pos, blockEntity.getRadius(), blockEntity.getCurrencies());
+        } else {
+            index.add(pos);
+        }
+    }
+    
+    /**
+     * Rebuild the index for every chunk currently loaded around players in a level
+     * 
+     * @return The number of chunks rescanned
+     */
+    public static int rebuildLoadedChunks(ServerLevel level) {
+        BankPermissionIndex index = BankPermissionIndex.get(level);
+        int viewDistance = level.getServer().getPlayerList().getViewDistance();
+        Set<Long> chunks = new HashSet<>();
+        
+        for (ServerPlayer player : level.players()) {
+            ChunkPos center = player.chunkPosition();
+            for (int cx = center.x - viewDistance; cx <= center.x + viewDistance; cx++) {
+                for (int cz = center.z - viewDistance; cz <= center.z + viewDistance; cz++) {
+                    chunks.add(ChunkPos.asLong(cx, cz));
+                }
+            }
+        }
+        
+        int rescanned = 0;
+        List<BlockPos> found = new ArrayList<>();
+        for (long packed : chunks) {
+            int cx = ChunkPos.getX(packed);
+            int cz = ChunkPos.getZ(packed);
+            if (level.getChunkSource().getChunkNow(cx, cz) == null) continue;
+            
+            found.clear();
+            scanLoadedSections(level,
+                cx << 4, level.getMinBuildHeight(), cz << 4,
+                (cx << 4) + 15, level.getMaxBuildHeight() - 1, (cz << 4) + 15,
+                found);
+            
+            // Replace what the index knew about this chunk with what is actually there
+            index.removeInChunk(cx, cz);
+            for (BlockPos pos : found) {
+                indexBlock(level, index, pos);
+            }
+            rescanned++;
+        }
+        
+        System.out.println("Enhanced ATM: Rebuilt Bank Permission index for " + rescanned + " loaded chunks in " + 
+            level.dimension().location() + ", " + index.size() + " block(s) indexed");
+        return rescanned;
+    }
+    
+    /**
+     * Collect permission blocks inside a box, working one chunk section at a time
+     * Sections whose palette cannot contain the block are skipped without reading their states,
+     * and chunks that are not loaded are skipped instead of being loaded
+     */
+    private static void scanLoadedSections(ServerLevel level, int minX, int minY, int minZ,
+                                           int maxX, int maxY, int maxZ, List<BlockPos> found) {
+        Block permissionBlock = ModBlocks.BANK_PERMISSION_BLOCK.get();
+        int minSectionY = Math.max(level.getMinSection(), SectionPos.blockToSectionCoord(minY));
+        int maxSectionY = Math.min(level.getMaxSection() - 1, SectionPos.blockToSectionCoord(maxY));
+        
+        for (int cx = SectionPos.blockToSectionCoord(minX); cx <= SectionPos.blockToSectionCoord(maxX); cx++) {
+            for (int cz = SectionPos.blockToSectionCoord(minZ); cz <= SectionPos.blockToSectionCoord(maxZ); cz++) {
+                LevelChunk chunk = level.getChunkSource().getChunkNow(cx, cz);
+                if (chunk == null) continue;
+                
+                LevelChunkSection[] sections = chunk.getSections();
+                for (int sy = minSectionY; sy <= maxSectionY; sy++) {
+                    LevelChunkSection section = sections[level.getSectionIndexFromSectionY(sy)];
+                    if (section.hasOnlyAir() || !section.getStates().maybeHas(state -> state.is(permissionBlock))) {
+                        continue;
+                    }
                     
-                    // Check if this position contains a Bank Permission Block
-                    if (level.getBlockState(checkPos).getBlock() == permissionBlock) {
-                        double distSq = atmPos.distSqr(checkPos);
-                        
-                        if (distSq < nearestDistSq) {
-                            nearestDistSq = distSq;
-                            nearestPos = checkPos;
+                    // Only sections that may hold the block get their states read, clipped to the box
+                    int baseX = cx << 4, baseY = sy << 4, baseZ = cz << 4;
+                    for (int y = Math.max(minY, baseY); y <= Math.min(maxY, baseY + 15); y++) {
+                        for (int z = Math.max(minZ, baseZ); z <= Math.min(maxZ, baseZ + 15); z++) {
+                            for (int x = Math.max(minX, baseX); x <= Math.min(maxX, baseX + 15); x++) {
+                                if (section.getBlockState(x - baseX, y - baseY, z - baseZ).is(permissionBlock)) {
+                                    found.add(new BlockPos(x, y, z));
+                                }
+                            }
                         }
                     }
                 }
             }
         }
-        
-        return nearestPos;
     }
     
     /**
@@ -139,7 +277,7 @@ public class BankPermissionChecker {
     }
     
     /**
-     * Get the configured range for Bank Permission Block checking
+     * Get the configured default range for Bank Permission Block checking, used by blocks without their own radius
      * 
      * @return The range in blocks
      */
@@ -0,0 +1,195 @@
+package com.infinix.enhancedatm.common.utils;
+
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Typed access to BubusteinMoney card items
+ * Resolves the CardItem methods once into MethodHandles stored in static final fields,
+ * so card reads and writes are plain invokeExact calls the JIT can inline
+ * (no Method.invoke, no varargs arrays, no boxing and no repeated method lookups)
+ */
+public final class CardAccessor {
+    
+    private static final String CARD_ITEM_CLASS = "tk.bubustein.money.item.CardItem";
+    
+    // Uniform call shapes - static methods get a dropped Item receiver so every handle is invoked the same way
+    private static final MethodType GET_MONEY_TYPE = MethodType.methodType(double.class, Item.class, ItemStack.class);
+    private static final MethodType SET_MONEY_TYPE = MethodType.methodType(void.class, Item.class, ItemStack.class, double.class);
+    private static final MethodType GET_CURRENCY_TYPE = MethodType.methodType(String.class, Item.class, ItemStack.class);
+    private static final MethodType SET_CURRENCY_TYPE = MethodType.methodType(void.class, Item.class, ItemStack.class, String.class);
+    private static final MethodType FORMAT_MONEY_TYPE = MethodType.methodType(String.class, double.class);
+    
+    private static final Class<?> cardItemClass;
+    private static final MethodHandle getMoney;
+    private static final MethodHandle setMoney;
+    private static final MethodHandle getCurrency;
+    private static final MethodHandle setCurrency;
+    private static final MethodHandle formatMoney;
+    
+    static {
+        Class<?> resolvedClass = null;
+        try {
+            resolvedClass = Class.forName(CARD_ITEM_CLASS);
+        } catch (Throwable e) {
+            // BubusteinMoney mod not available
+            System.err.println("Enhanced ATM: Could not resolve BubusteinMoney CardItem: " + e.getMessage());
+        }
+        
+        cardItemClass = resolvedClass;
+        getMoney = resolve(resolvedClass, "getMoney", GET_MONEY_TYPE, ItemStack.class);
+        setMoney = resolve(resolvedClass, "setMoney", SET_MONEY_TYPE, ItemStack.class, double.class);
+        getCurrency = resolve(resolvedClass, "getCurrency", GET_CURRENCY_TYPE, ItemStack.class);
+        setCurrency = resolve(resolvedClass, "setCurrency", SET_CURRENCY_TYPE, ItemStack.class, String.class);
+        formatMoney = resolve(resolvedClass, "formatMoney", FORMAT_MONEY_TYPE, double.class);
+    }
+    
+    private CardAccessor() {
+    }
+    
+    /**
+     * Force resolution of the card handles (called once during common setup)
+     */
+    public static void init() {
+        if (isAvailable()) {
+            System.out.println("Enhanced ATM: Card accessor resolved for " + cardItemClass.getName());
+        } else {
+            System.err.println("Enhanced ATM: Card accessor unavailable - card operations will be disabled");
+        }
+    }
+    
+    /**
+     * Check if the card balance handles were resolved
+     */
+    public static boolean isAvailable() {
+        return cardItemClass != null && getMoney != null && setMoney != null;
+    }
+    
+    /**
+     * Check if an ItemStack is a BubusteinMoney card
+     */
+    public static boolean isCard(ItemStack stack) {
+        return cardItemClass != null && AtmTypeRegistry.isCard(stack);
+    }
+    
+    /**
+     * Read the raw balance stored on a card
+     */
+    public static double getMoney(ItemStack cardStack) {
+        if (getMoney == null || !isCard(cardStack)) return 0.0;
+        
+        try {
+            return (double) getMoney.invokeExact(cardStack.getItem(), cardStack);
+        } catch (Throwable e) {
+            System.err.println("Enhanced ATM: Error reading card balance: " + e.getMessage());
+            return 0.0;
+        }
+    }
+    
+    /**
+     * Write the raw balance stored on a card
+     */
+    public static boolean setMoney(ItemStack cardStack, double balance) {
+        if (setMoney == null || !isCard(cardStack)) return false;
+        
+        try {
+            setMoney.invokeExact(cardStack.getItem(), cardStack, balance);
+            return true;
+        } catch (Throwable e) {
+            System.err.println("Enhanced ATM: Error writing card balance: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Read the currency code stored on a card
+     */
+    public static String getCurrency(ItemStack cardStack) {
+        if (getCurrency == null || !isCard(cardStack)) return "EUR";
+        
+        try {
+            String currency = (String) getCurrency.invokeExact(cardStack.getItem(), cardStack);
+            return currency != null ? currency : "EUR";
+        } catch (Throwable e) {
+            System.err.println("Enhanced ATM: Error reading card currency: " + e.getMessage());
+            return "EUR";
+        }
+    }
+    
+    /**
+     * Write the currency code stored on a card
+     */
+    public static boolean setCurrency(ItemStack cardStack, String currency) {
+        if (setCurrency == null || !isCard(cardStack)) return false;
+        
+        try {
+            setCurrency.invokeExact(cardStack.getItem(), cardStack, currency);
+            return true;
+        } catch (Throwable e) {
+            System.err.println("Enhanced ATM: Error writing card currency: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Format an amount the same way BubusteinMoney does
+     */
+    public static String formatMoney(double amount) {
+        if (formatMoney != null) {
+            try {
+                return (String) formatMoney.invokeExact(amount);
+            } catch (Throwable e) {
+                System.err.println("Enhanced ATM: Error formatting money: " + e.getMessage());
+            }
+        }
+        return String.format("%.2f", amount);
+    }
+    
+    /**
+     * Look up a CardItem method and adapt it to the given call shape
+     */
+    private static MethodHandle resolve(Class<?> owner, String name, MethodType callType, Class<?>... parameterTypes) {
+        if (owner == null) return null;
+        
+        try {
+            Method method = findMethod(owner, name, parameterTypes);
+            method.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+            
+            boolean expectsReceiver = callType.parameterCount() == parameterTypes.length + 1;
+            if (Modifier.isStatic(method.getModifiers())) {
+                if (expectsReceiver) {
+                    handle = MethodHandles.dropArguments(handle, 0, Item.class);
+                }
+            } else if (!expectsReceiver) {
+                System.err.println("Enhanced ATM: CardItem." + name + " is not static, cannot be called without a card");
+                return null;
+            }
+            
+            return handle.asType(callType);
+        } catch (Throwable e) {
+            System.err.println("Enhanced ATM: Could not resolve CardItem." + name + ": " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Find a method declared on the class or any of its superclasses
+     */
+    private static Method findMethod(Class<?> owner, String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+        for (Class<?> type = owner; type != null; type = type.getSuperclass()) {
+            try {
+                return type.getDeclaredMethod(name, parameterTypes);
+            } catch (NoSuchMethodException ignored) {
+                // Try the superclass
+            }
+        }
+        return owner.getMethod(name, parameterTypes);
+    }
+}
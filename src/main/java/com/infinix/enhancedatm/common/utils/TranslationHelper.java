@@ -28,6 +28,14 @@ public class TranslationHelper {
     public static final String CARD_REQUIRED = "message." + MOD_ID + ".card_required";
     public static final String MISSING_KEY = "message." + MOD_ID + ".missing_key";
     public static final String USE_KEY_IN_HAND = "message." + MOD_ID + ".use_key_in_hand";
+    public static final String EXCHANGE_SUCCESS = "message." + MOD_ID + ".exchange_success";
+    public static final String EXCHANGE_FULL_BALANCE_REQUIRED = "message." + MOD_ID + ".exchange_full_balance_required";
+    public static final String EXCHANGE_FEE = "message." + MOD_ID + ".exchange_fee";
+    public static final String ZONE_CURRENCY_NOT_ALLOWED = "message." + MOD_ID + ".zone_currency_not_allowed";
+    public static final String PERMISSION_CURRENCY_NOT_ALLOWED = "message." + MOD_ID + ".permission_currency_not_allowed";
+    public static final String AMOUNT_NOT_PAYABLE = "message." + MOD_ID + ".amount_not_payable";
+    public static final String DEPOSIT_FAILED_REFUNDED = "message." + MOD_ID + ".deposit_failed_refunded";
+    public static final String REMAINDER_NOT_PAID = "message." + MOD_ID + ".remainder_not_paid";
     
     /**
      * Create a translatable component with green color formatting